@@ -0,0 +1,323 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Breadth-first search over a PackedPuzzle that keeps its layers on disk instead of in a
+// visited map. Layer d is a file of sorted, distinct packed states. To build layer d + 1,
+// layer d is streamed and its children are collected in a fixed buffer; every time the
+// buffer fills it is sorted and written out as a run. The runs are then merged, and a
+// child is kept only if it is not in the seen file, the sorted union of layers 0..d
+// (delayed duplicate detection). Checking only layers d and d - 1 would do on an undirected
+// graph, but the puzzles' moves are directed, so a child can be in any earlier layer.
+// Once the goal turns up in a layer, the path is rebuilt by walking the layer files
+// backwards, each time looking for a state with a move into the current one.
+//
+// Every file is read and written front to back through one ByteBuffer, and at most
+// MERGE_FAN_IN runs are open at once: more runs are first merged in passes of that many.
+// So the heap and the open files stay bounded however many states there are.
+class ExternalBfs {
+    private static final int IO_BYTES = 1 << 16;
+    private static final int MERGE_FAN_IN = 16;
+
+    private final PackedPuzzle puzzle;
+    private final Path directory;
+    private final long[] buffer;
+    private final List<Path> layers = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();   // runs on disk for the layer being built
+    private int runFiles;
+    private Path seen;                                    // sorted union of every layer so far
+    private long expanded;
+    private long stored;
+
+    // bufferStates children are sorted in memory at a time; everything else stays on disk
+    public ExternalBfs(PackedPuzzle puzzle, Path directory, int bufferStates) {
+        this.puzzle = puzzle;
+        this.directory = directory;
+        this.buffer = new long[bufferStates];
+    }
+
+    // States expanded, states written to layer files, and layers built by the last search
+    public long expanded() { return expanded; }
+    public long stored() { return stored; }
+    public int layers() { return layers.size(); }
+
+    // Returns a shortest path from start to goal, or an empty array if there is none.
+    // The layer files are deleted before returning.
+    public long[] search() throws IOException {
+        expanded = 0;
+        stored = 0;
+        layers.clear();
+        runFiles = 0;
+        try {
+            long start = puzzle.start();
+            Path first = layerFile(0);
+            layers.add(first);
+            try (Writer writer = new Writer(first)) {
+                writer.write(start);
+            }
+            stored = 1;
+            if (puzzle.goalTest(start)) return new long[]{start};
+            seen = directory.resolve("seen-0.bin");
+            Files.copy(first, seen);
+
+            while (true) {
+                int depth = layers.size();
+                Path next = layerFile(depth);
+                expand(layers.get(depth - 1));
+                while (runs.size() > MERGE_FAN_IN) mergePass();
+                boolean goalFound;
+                long count;
+                try (Writer writer = new Writer(next)) {
+                    goalFound = merge(writer);
+                    count = writer.count;
+                }
+                deleteRuns();
+                if (count == 0) {
+                    Files.delete(next);
+                    return new long[0];
+                }
+                layers.add(next);
+                stored += count;
+                if (goalFound) return constructPath();
+                addToSeen(next, depth);
+            }
+        } finally {
+            deleteRuns();
+            for (Path layer : layers) Files.deleteIfExists(layer);
+            Files.deleteIfExists(layerFile(layers.size()));   // a layer left half built
+            if (seen != null) Files.deleteIfExists(seen);
+            seen = null;
+        }
+    }
+
+    private void deleteRuns() throws IOException {
+        for (Path run : runs) Files.deleteIfExists(run);
+        runs.clear();
+    }
+
+    private Path layerFile(int depth) {
+        return directory.resolve("layer-" + depth + ".bin");
+    }
+
+    // Streams a layer and writes its children as sorted runs of at most buffer.length states
+    private void expand(Path layer) throws IOException {
+        long[] children = new long[puzzle.maxMoves()];
+        int size = 0;
+        try (Reader reader = new Reader(layer)) {
+            while (reader.hasNext()) {
+                long state = reader.next();
+                expanded++;
+                int count = puzzle.moveGen(state, children);
+                for (int i = 0; i < count; i++) {
+                    if (size == buffer.length) {
+                        writeRun(size);
+                        size = 0;
+                    }
+                    buffer[size++] = children[i];
+                }
+            }
+        }
+        if (size > 0) writeRun(size);
+    }
+
+    private Path newRun() {
+        Path run = directory.resolve("run-" + runFiles++ + ".bin");
+        runs.add(run);
+        return run;
+    }
+
+    private void writeRun(int size) throws IOException {
+        Arrays.sort(buffer, 0, size);
+        try (Writer writer = new Writer(newRun())) {
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || buffer[i] != buffer[i - 1]) writer.write(buffer[i]);
+            }
+        }
+    }
+
+    // Merges the runs MERGE_FAN_IN at a time into fewer, longer runs
+    private void mergePass() throws IOException {
+        List<Path> inputs = new ArrayList<>(runs);
+        runs.clear();
+        for (int from = 0; from < inputs.size(); from += MERGE_FAN_IN) {
+            List<Path> group = inputs.subList(from, Math.min(from + MERGE_FAN_IN, inputs.size()));
+            try (Writer writer = new Writer(newRun())) {
+                mergeRuns(group, writer, null);
+            }
+            for (Path run : group) Files.delete(run);
+        }
+    }
+
+    // Writes seen-d, the union of the seen file and the layer just built, in place of seen
+    private void addToSeen(Path layer, int depth) throws IOException {
+        Path union = directory.resolve("seen-" + depth + ".bin");
+        try (Writer writer = new Writer(union)) {
+            mergeRuns(Arrays.asList(seen, layer), writer, null);
+        }
+        Files.delete(seen);
+        seen = union;
+    }
+
+    // Merges the runs into the next layer, dropping repeats and every state already seen;
+    // returns true if the goal is among the states written
+    private boolean merge(Writer out) throws IOException {
+        try (Reader known = new Reader(seen)) {
+            return mergeRuns(runs, out, known);
+        }
+    }
+
+    // Writes the distinct states of the sorted files to out, leaving out those in known
+    // (if not null); returns true if the goal is among the states written
+    private boolean mergeRuns(List<Path> files, Writer out, Reader known) throws IOException {
+        PriorityQueue<Reader> queue = new PriorityQueue<>((a, b) -> Long.compare(a.peek(), b.peek()));
+        boolean goalFound = false;
+        try {
+            for (Path file : files) {
+                Reader reader = new Reader(file);
+                if (reader.hasNext()) queue.add(reader);
+                else reader.close();
+            }
+            long last = 0;
+            boolean any = false;
+            while (!queue.isEmpty()) {
+                Reader reader = queue.poll();
+                long state = reader.next();
+                if (reader.hasNext()) queue.add(reader);
+                else reader.close();
+
+                if (any && state == last) continue;
+                any = true;
+                last = state;
+                if (known != null && known.skipTo(state)) continue;
+                out.write(state);
+                if (puzzle.goalTest(state)) goalFound = true;
+            }
+        } finally {
+            for (Reader reader : queue) reader.close();
+        }
+        return goalFound;
+    }
+
+    // Walks back from the goal in the last layer; each earlier layer is scanned once for a
+    // state with a move into the one after it
+    private long[] constructPath() throws IOException {
+        int depth = layers.size() - 1;
+        long[] path = new long[depth + 1];
+        try (Reader reader = new Reader(layers.get(depth))) {
+            while (reader.hasNext()) {
+                long state = reader.next();
+                if (puzzle.goalTest(state)) {
+                    path[depth] = state;
+                    break;
+                }
+            }
+        }
+        long[] children = new long[puzzle.maxMoves()];
+        for (int d = depth - 1; d >= 0; d--) {
+            long target = path[d + 1];
+            boolean found = false;
+            try (Reader reader = new Reader(layers.get(d))) {
+                while (reader.hasNext() && !found) {
+                    long state = reader.next();
+                    int count = puzzle.moveGen(state, children);
+                    for (int i = 0; i < count && !found; i++) {
+                        if (children[i] == target) {
+                            path[d] = state;
+                            found = true;
+                        }
+                    }
+                }
+            }
+            if (!found) throw new IllegalStateException("no parent for " + puzzle.toString(target) + " in layer " + d);
+        }
+        return path;
+    }
+
+    // Sequential writer of big-endian longs
+    private static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(IO_BYTES);
+        long count;
+
+        Writer(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+
+        void write(long state) throws IOException {
+            if (!bytes.hasRemaining()) flush();
+            bytes.putLong(state);
+            count++;
+        }
+
+        private void flush() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) channel.write(bytes);
+            bytes.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+
+    // Sequential reader of big-endian longs with one state of look-ahead
+    private static final class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(IO_BYTES);
+        private boolean hasNext;
+        private long next;
+
+        Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            bytes.limit(0);
+            advance();
+        }
+
+        private void advance() throws IOException {
+            if (bytes.remaining() < Long.BYTES) {
+                bytes.compact();
+                while (bytes.position() < Long.BYTES) {
+                    if (channel.read(bytes) < 0) break;
+                }
+                bytes.flip();
+            }
+            hasNext = bytes.remaining() >= Long.BYTES;
+            if (hasNext) next = bytes.getLong();
+        }
+
+        boolean hasNext() {
+            return hasNext;
+        }
+
+        long peek() {
+            return next;
+        }
+
+        long next() throws IOException {
+            long state = next;
+            advance();
+            return state;
+        }
+
+        // Moves past every state below target; true if target itself is in the file
+        boolean skipTo(long target) throws IOException {
+            while (hasNext && next < target) advance();
+            return hasNext && next == target;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.Arrays;
+
+// Iterative-deepening A* over a PackedPuzzle. Each round is a depth-first search that cuts
+// off any node whose g + h exceeds the bound; the next bound is the smallest f that was cut
+// off, so the first goal reached is optimal when the heuristic is admissible. Only the
+// current path and the children of each node on it are stored: memory grows with the
+// solution depth, never with the number of states visited.
+//
+// There is no visited set, so the puzzle's moves must not lead back to a state on the path.
+// Rabbits only ever move forward, and PackedRiverBridge's moves put one more person across
+// on every round trip, so neither graph has cycles.
+class IdaStar {
+    private final PackedPuzzle puzzle;
+    private final int maxMoves;
+    private long[] path = new long[64];
+    private long[] g = new long[64];
+    private int[] next = new int[64];      // next child to try at each depth
+    private int[] count = new int[64];     // children generated at each depth
+    private long[] children;               // maxMoves slots per depth
+    private final long[] scratch;
+    private int depth;
+    private long expanded;
+    private int iterations;
+
+    public IdaStar(PackedPuzzle puzzle) {
+        this.puzzle = puzzle;
+        this.maxMoves = puzzle.maxMoves();
+        this.children = new long[64 * maxMoves];
+        this.scratch = new long[maxMoves];
+    }
+
+    // Nodes expanded and bounds tried by the last search
+    public long expanded() { return expanded; }
+    public int iterations() { return iterations; }
+
+    // Returns an optimal path of states from start to goal, or an empty array if there is none
+    public long[] search() {
+        long start = puzzle.start();
+        expanded = 0;
+        iterations = 0;
+        if (puzzle.goalTest(start)) return new long[]{start};
+
+        long bound = puzzle.heuristic(start);
+        while (true) {
+            iterations++;
+            long nextBound = Long.MAX_VALUE;
+            depth = 0;
+            push(start, 0);
+
+            while (depth > 0) {
+                int top = depth - 1;
+                if (next[top] == count[top]) {
+                    depth--;
+                    continue;
+                }
+                long state = path[top];
+                long child = children[top * maxMoves + next[top]++];
+                long childG = g[top] + puzzle.cost(state, child);
+                long f = childG + puzzle.heuristic(child);
+                if (f > bound) {
+                    nextBound = Math.min(nextBound, f);
+                    continue;
+                }
+                if (puzzle.goalTest(child)) {
+                    long[] solution = Arrays.copyOf(path, depth + 1);
+                    solution[depth] = child;
+                    return solution;
+                }
+                push(child, childG);
+            }
+
+            if (nextBound == Long.MAX_VALUE) return new long[0];
+            bound = nextBound;
+        }
+    }
+
+    // Puts state on the path and generates its children into the slots for its depth
+    private void push(long state, long cost) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+            g = Arrays.copyOf(g, depth * 2);
+            next = Arrays.copyOf(next, depth * 2);
+            count = Arrays.copyOf(count, depth * 2);
+            children = Arrays.copyOf(children, depth * 2 * maxMoves);
+        }
+        expanded++;
+        int generated = puzzle.moveGen(state, scratch);
+        System.arraycopy(scratch, 0, children, depth * maxMoves, generated);
+        path[depth] = state;
+        g[depth] = cost;
+        next[depth] = 0;
+        count[depth] = generated;
+        depth++;
+    }
+
+    // Cost of a path returned by search
+    public long cost(long[] solution) {
+        long total = 0;
+        for (int i = 1; i < solution.length; i++) total += puzzle.cost(solution[i - 1], solution[i]);
+        return total;
+    }
+}
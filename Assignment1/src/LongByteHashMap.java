@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+// LongLongHashMap with byte values, for maps whose values are small codes (such as the
+// move that reached a state) rather than states: 9 bytes per slot instead of 16.
+class LongByteHashMap {
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private byte[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    private boolean hasZeroKey;
+    private byte zeroValue;
+
+    public LongByteHashMap() {
+        this(1 << 10);
+    }
+
+    public LongByteHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new byte[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) return hasZeroKey;
+        int slot = LongLongHashMap.mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public byte get(long key, byte missing) {
+        if (key == 0) return hasZeroKey ? zeroValue : missing;
+        int slot = LongLongHashMap.mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return missing;
+    }
+
+    public void put(long key, byte value) {
+        insert(key, value, true);
+    }
+
+    // Returns true if the key was absent and has been inserted.
+    public boolean putIfAbsent(long key, byte value) {
+        return insert(key, value, false);
+    }
+
+    private boolean insert(long key, byte value, boolean overwrite) {
+        if (key == 0) {
+            boolean added = !hasZeroKey;
+            if (added || overwrite) zeroValue = value;
+            if (added) size++;
+            hasZeroKey = true;
+            return added;
+        }
+        int slot = LongLongHashMap.mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                if (overwrite) values[slot] = value;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) rehash();
+        return true;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) continue;
+            int slot = LongLongHashMap.mix(key) & mask;
+            while (keys[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZeroKey = false;
+        size = 0;
+    }
+}
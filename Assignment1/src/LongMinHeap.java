@@ -0,0 +1,61 @@
+import java.util.Arrays;
+
+// Binary min-heap of primitive longs. Callers pack (priority, payload) into one long so that
+// ordering the longs orders the priorities; stale entries are skipped when polled.
+class LongMinHeap {
+    private long[] heap;
+    private int size;
+
+    public LongMinHeap() {
+        this(1 << 10);
+    }
+
+    public LongMinHeap(int capacity) {
+        heap = new long[Math.max(2, capacity)];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(long value) {
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        int slot = size++;
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (heap[parent] <= value) break;
+            heap[slot] = heap[parent];
+            slot = parent;
+        }
+        heap[slot] = value;
+    }
+
+    public long peek() {
+        if (size == 0) throw new IllegalStateException("heap is empty");
+        return heap[0];
+    }
+
+    public long poll() {
+        long top = peek();
+        long last = heap[--size];
+        int slot = 0;
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (last <= heap[child]) break;
+            heap[slot] = heap[child];
+            slot = child;
+        }
+        if (size > 0) heap[slot] = last;
+        return top;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,22 @@
+// A puzzle whose states are packed into longs, so solvers keep no per-state objects.
+interface PackedPuzzle {
+    long start();
+
+    boolean goalTest(long state);
+
+    // Upper bound on the number of children moveGen can write
+    int maxMoves();
+
+    // Writes the children of state into out and returns how many there are
+    int moveGen(long state, long[] out);
+
+    // Hands every child of state to sink, with its move cost, without building a list
+    void forEachSuccessor(long state, SuccessorSink sink);
+
+    long cost(long from, long to);
+
+    // Lower bound on the cost from state to the goal; must never overestimate
+    long heuristic(long state);
+
+    String toString(long state);
+}
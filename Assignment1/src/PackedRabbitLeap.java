@@ -0,0 +1,500 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+// Rabbit Leap for any number of rabbits per side, with each board packed into a long.
+// Cell i uses bits 2i and 2i+1: 0 = gap, 1 = E rabbit, 2 = W rabbit.
+// A long holds 32 cells, so boards of up to 15 rabbits per side are supported.
+public class PackedRabbitLeap implements PackedPuzzle {
+    static final int GAP = 0;
+    static final int EAST = 1;
+    static final int WEST = 2;
+    static final int MAX_RABBITS = 15;
+    static final long NO_PARENT = -1L; // every cell would read 3, so it is never a real board
+    static final int MAX_MOVES = 4;
+    static final byte ROOT = 0;        // move code of the start board
+
+    private static final long LOW_BITS = 0x5555555555555555L;
+
+    private final int n;
+    private final int cells;
+    private final long cellsMask;
+    private final long start;
+    private final long goal;
+    private int visited;   // boards stored by the last search
+
+    public PackedRabbitLeap(int n) {
+        if (n < 1 || n > MAX_RABBITS) {
+            throw new IllegalArgumentException("rabbits per side must be in 1.." + MAX_RABBITS + ": " + n);
+        }
+        this.n = n;
+        this.cells = 2 * n + 1;
+        this.cellsMask = (1L << (2 * cells)) - 1;
+        long s = 0;
+        long g = 0;
+        for (int i = 0; i < n; i++) {
+            s = set(s, i, EAST);
+            s = set(s, n + 1 + i, WEST);
+            g = set(g, i, WEST);
+            g = set(g, n + 1 + i, EAST);
+        }
+        this.start = s;
+        this.goal = g;
+    }
+
+    public int rabbitsPerSide() { return n; }
+    public int cells() { return cells; }
+    public long start() { return start; }
+    public int visited() { return visited; }
+    public long goal() { return goal; }
+
+    public boolean goalTest(long board) {
+        return board == goal;
+    }
+
+    static int cell(long board, int i) {
+        return (int) (board >>> (2 * i)) & 3;
+    }
+
+    static long set(long board, int i, int value) {
+        return (board & ~(3L << (2 * i))) | ((long) value << (2 * i));
+    }
+
+    // Index of the single gap: the only 2-bit field inside the board that is 00.
+    int gapIndex(long board) {
+        long occupied = (board | (board >>> 1)) & LOW_BITS;
+        long empty = ~occupied & LOW_BITS & cellsMask;
+        return Long.numberOfTrailingZeros(empty) >>> 1;
+    }
+
+    // The rabbit at cell `from` moves into the gap at cell `gap`.
+    static long move(long board, int from, int gap, int rabbit) {
+        return (board & ~(3L << (2 * from))) | ((long) rabbit << (2 * gap));
+    }
+
+    // Writes the children of board into out (at least MAX_MOVES long) and returns how many there are.
+    // Only rabbits one or two cells away from the gap can move, so this is O(1) per board.
+    // Children come out in the same order as State.moveGen in RabbitLeap.java.
+    public int moveGen(long board, long[] out) {
+        int gap = gapIndex(board);
+        int count = 0;
+        if (gap - 2 >= 0 && cell(board, gap - 2) == EAST) out[count++] = move(board, gap - 2, gap, EAST);
+        if (gap - 1 >= 0 && cell(board, gap - 1) == EAST) out[count++] = move(board, gap - 1, gap, EAST);
+        if (gap + 1 < cells && cell(board, gap + 1) == WEST) out[count++] = move(board, gap + 1, gap, WEST);
+        if (gap + 2 < cells && cell(board, gap + 2) == WEST) out[count++] = move(board, gap + 2, gap, WEST);
+        return count;
+    }
+
+    // moveGen without the buffer: children go straight to sink, every move costing 1
+    public void forEachSuccessor(long board, SuccessorSink sink) {
+        int gap = gapIndex(board);
+        if (gap - 2 >= 0 && cell(board, gap - 2) == EAST) sink.accept(move(board, gap - 2, gap, EAST), 1);
+        if (gap - 1 >= 0 && cell(board, gap - 1) == EAST) sink.accept(move(board, gap - 1, gap, EAST), 1);
+        if (gap + 1 < cells && cell(board, gap + 1) == WEST) sink.accept(move(board, gap + 1, gap, WEST), 1);
+        if (gap + 2 < cells && cell(board, gap + 2) == WEST) sink.accept(move(board, gap + 2, gap, WEST), 1);
+    }
+
+    // Writes the parents of board into out (the boards that reach it in one move) and returns
+    // how many there are: a rabbit that just moved into its cell from the gap moves back.
+    public int inverseMoveGen(long board, long[] out) {
+        int gap = gapIndex(board);
+        int count = 0;
+        if (gap + 2 < cells && cell(board, gap + 2) == EAST) out[count++] = move(board, gap + 2, gap, EAST);
+        if (gap + 1 < cells && cell(board, gap + 1) == EAST) out[count++] = move(board, gap + 1, gap, EAST);
+        if (gap - 1 >= 0 && cell(board, gap - 1) == WEST) out[count++] = move(board, gap - 1, gap, WEST);
+        if (gap - 2 >= 0 && cell(board, gap - 2) == WEST) out[count++] = move(board, gap - 2, gap, WEST);
+        return count;
+    }
+
+    public int maxMoves() {
+        return MAX_MOVES;
+    }
+
+    public long cost(long from, long to) {
+        return 1;
+    }
+
+    // Every move is a slide (one rabbit advances 1 cell) or a jump (advances 2 and passes
+    // one rabbit of the other colour). With D the cells still to advance and J the E/W pairs
+    // still to pass each other, every way to the goal takes J jumps and D - 2J slides, so
+    // D - J moves: exact on boards that can still be solved, and admissible on the rest.
+    public long heuristic(long board) {
+        long remaining = 0;
+        long passes = 0;
+        int east = 0;   // E rabbits seen so far, left to right
+        int west = 0;
+        for (int i = 0; i < cells; i++) {
+            int c = cell(board, i);
+            if (c == EAST) {
+                remaining += n + 1 + east - i;
+                east++;
+            } else if (c == WEST) {
+                remaining += i - west;
+                passes += east;   // every E rabbit left of this W still has to jump it
+                west++;
+            }
+        }
+        return remaining - passes;
+    }
+
+    public String toString(long board) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < cells; i++) {
+            if (i > 0) sb.append(", ");
+            int c = cell(board, i);
+            sb.append(c == EAST ? 'E' : c == WEST ? 'W' : '_');
+        }
+        return sb.append(']').toString();
+    }
+
+    public long[] constructPath(long board, LongLongHashMap parentMap) {
+        int length = 0;
+        for (long temp = board; temp != NO_PARENT; temp = parentMap.get(temp, NO_PARENT)) length++;
+        long[] path = new long[length];
+        for (long temp = board; temp != NO_PARENT; temp = parentMap.get(temp, NO_PARENT)) path[--length] = temp;
+        return path;
+    }
+
+    // Code for the move from parent to child: where the gap was, relative to where it is now.
+    // The rabbit that moved sits there in child, so the code alone undoes the move.
+    byte moveCode(long parent, long child) {
+        return (byte) (gapIndex(parent) - gapIndex(child));
+    }
+
+    // The board child was reached from by the move with this code
+    long undo(long child, byte code) {
+        int gap = gapIndex(child);
+        int rabbit = gap + code;
+        return move(child, rabbit, gap, cell(child, rabbit));
+    }
+
+    // Replays the recorded move codes backward from board to start, so a search keeps one
+    // byte per board for its path instead of the whole parent board
+    public long[] constructPath(long board, LongByteHashMap moves) {
+        int length = 1;
+        for (long temp = board; temp != start; temp = undo(temp, moves.get(temp, ROOT))) length++;
+        long[] path = new long[length];
+        long temp = board;
+        while (length > 1) {
+            path[--length] = temp;
+            temp = undo(temp, moves.get(temp, ROOT));
+        }
+        path[0] = temp;
+        return path;
+    }
+
+    public void printPath(long[] path) {
+        for (int i = 0; i < path.length; i++) {
+            System.out.println(i + " --> " + toString(path[i]));
+        }
+    }
+
+    // Breadth-first search; returns the shortest path from start to goal, or an empty array.
+    // The move map doubles as the visited set, so each board is queued at most once.
+    public long[] bfs() {
+        LongByteHashMap moves = new LongByteHashMap();
+        long[] queue = new long[1024];
+        long[] children = new long[MAX_MOVES];
+        int head = 0;
+        int tail = 0;
+
+        moves.put(start, ROOT);
+        queue[tail++] = start;
+
+        while (head < tail) {
+            long curState = queue[head++];
+            if (goalTest(curState)) {
+                visited = moves.size();
+                return constructPath(curState, moves);
+            }
+            int count = moveGen(curState, children);
+            for (int i = 0; i < count; i++) {
+                if (moves.putIfAbsent(children[i], moveCode(curState, children[i]))) {
+                    if (tail == queue.length) queue = Arrays.copyOf(queue, tail * 2);
+                    queue[tail++] = children[i];
+                }
+            }
+        }
+        return new long[0];
+    }
+
+    // The same board seen from the other bank: cells in reverse order with E and W swapped.
+    // Long.reverse does both at once, since it also swaps the two bits of every cell.
+    public long mirror(long board) {
+        return Long.reverse(board) >>> (64 - 2 * cells);
+    }
+
+    // Representative of the pair {board, mirror(board)}. Mirroring maps moves to moves and
+    // start and goal to themselves, so both boards are equally far from the goal.
+    public long canonical(long board) {
+        return Math.min(board, mirror(board));
+    }
+
+    // Breadth-first search over canonical boards, so a board and its mirror are stored once.
+    // The parent map links canonical boards; the path is mapped back to real boards after.
+    public long[] symmetricBfs() {
+        LongLongHashMap parentMap = new LongLongHashMap();
+        long[] queue = new long[1024];
+        long[] children = new long[MAX_MOVES];
+        int head = 0;
+        int tail = 0;
+
+        parentMap.put(canonical(start), NO_PARENT);
+        queue[tail++] = canonical(start);
+
+        while (head < tail) {
+            long curState = queue[head++];
+            if (canonical(curState) == canonical(goal)) {
+                visited = parentMap.size();
+                return concretize(constructPath(curState, parentMap));
+            }
+            int count = moveGen(curState, children);
+            for (int i = 0; i < count; i++) {
+                long child = canonical(children[i]);
+                if (parentMap.putIfAbsent(child, curState)) {
+                    if (tail == queue.length) queue = Arrays.copyOf(queue, tail * 2);
+                    queue[tail++] = child;
+                }
+            }
+        }
+        return new long[0];
+    }
+
+    // Replays a path of canonical boards from the real start: each step takes the move
+    // whose child is either the next canonical board or its mirror
+    long[] concretize(long[] canonicalPath) {
+        long[] path = new long[canonicalPath.length];
+        long[] children = new long[MAX_MOVES];
+        path[0] = start;
+        for (int i = 1; i < path.length; i++) {
+            int count = moveGen(path[i - 1], children);
+            boolean found = false;
+            for (int j = 0; j < count && !found; j++) {
+                if (canonical(children[j]) == canonicalPath[i]) {
+                    path[i] = children[j];
+                    found = true;
+                }
+            }
+            if (!found) {
+                throw new IllegalStateException("no move from " + toString(path[i - 1]) + " matches step " + i
+                        + " of the canonical path");
+            }
+        }
+        return path;
+    }
+
+    // Depth-first search; returns the first path found, or an empty array.
+    public long[] dfs() {
+        LongByteHashMap moves = new LongByteHashMap();
+        long[] stack = new long[1024];
+        long[] children = new long[MAX_MOVES];
+        int top = 0;
+
+        moves.put(start, ROOT);
+        stack[top++] = start;
+
+        while (top > 0) {
+            long curState = stack[--top];
+            if (goalTest(curState)) {
+                visited = moves.size();
+                return constructPath(curState, moves);
+            }
+            int count = moveGen(curState, children);
+            for (int i = 0; i < count; i++) {
+                if (moves.putIfAbsent(children[i], moveCode(curState, children[i]))) {
+                    if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = children[i];
+                }
+            }
+        }
+        return new long[0];
+    }
+
+    // Breadth-first search from both ends: forward from start with moveGen and backward from
+    // goal with inverseMoveGen, always growing the smaller frontier by one whole layer. When a
+    // layer reaches boards the other side has seen, the meeting board with the shortest
+    // total is kept and the two parent chains are spliced through it.
+    public long[] bidirectionalBfs() {
+        LongLongHashMap fromStart = new LongLongHashMap();  // board -> its parent toward start
+        LongLongHashMap fromGoal = new LongLongHashMap();   // board -> its child toward goal
+        fromStart.put(start, NO_PARENT);
+        fromGoal.put(goal, NO_PARENT);
+        if (start == goal) return new long[]{start};
+
+        long[] forward = {start};
+        long[] backward = {goal};
+        long[] children = new long[MAX_MOVES];
+        while (forward.length > 0 && backward.length > 0) {
+            boolean isForward = forward.length <= backward.length;
+            long[] layer = isForward ? forward : backward;
+            LongLongHashMap own = isForward ? fromStart : fromGoal;
+            LongLongHashMap other = isForward ? fromGoal : fromStart;
+
+            long[] next = new long[Math.max(16, layer.length * 2)];
+            int size = 0;
+            long meet = NO_PARENT;
+            int shortest = Integer.MAX_VALUE;
+            for (long board : layer) {
+                int count = isForward ? moveGen(board, children) : inverseMoveGen(board, children);
+                for (int i = 0; i < count; i++) {
+                    if (!own.putIfAbsent(children[i], board)) continue;
+                    if (other.containsKey(children[i])) {
+                        int length = chainLength(children[i], fromStart) + chainLength(children[i], fromGoal);
+                        if (length < shortest) {
+                            shortest = length;
+                            meet = children[i];
+                        }
+                    }
+                    if (size == next.length) next = Arrays.copyOf(next, size * 2);
+                    next[size++] = children[i];
+                }
+            }
+            if (meet != NO_PARENT) {
+                visited = fromStart.size() + fromGoal.size();
+                return splice(meet, fromStart, fromGoal);
+            }
+            if (isForward) forward = Arrays.copyOf(next, size);
+            else backward = Arrays.copyOf(next, size);
+        }
+        return new long[0];
+    }
+
+    private static int chainLength(long board, LongLongHashMap links) {
+        int length = 0;
+        for (long temp = links.get(board, NO_PARENT); temp != NO_PARENT; temp = links.get(temp, NO_PARENT)) length++;
+        return length;
+    }
+
+    private long[] splice(long meet, LongLongHashMap fromStart, LongLongHashMap fromGoal) {
+        long[] head = constructPath(meet, fromStart);
+        int tail = chainLength(meet, fromGoal);
+        long[] path = Arrays.copyOf(head, head.length + tail);
+        int i = head.length;
+        for (long temp = fromGoal.get(meet, NO_PARENT); temp != NO_PARENT; temp = fromGoal.get(temp, NO_PARENT)) {
+            path[i++] = temp;
+        }
+        return path;
+    }
+
+    public static void main(String[] args) throws IOException {
+        PackedRabbitLeap rabbitLeap = new PackedRabbitLeap(3);
+        System.out.println("***Path Using BFS Technique*** ");
+        rabbitLeap.printPath(rabbitLeap.bfs());
+        System.out.println();
+        System.out.println("***Path Using DFS Technique*** ");
+        rabbitLeap.printPath(rabbitLeap.dfs());
+        System.out.println();
+
+        for (int n : new int[]{10, 12}) {
+            PackedRabbitLeap big = new PackedRabbitLeap(n);
+            long begin = System.nanoTime();
+            long[] path = big.bfs();
+            long millis = (System.nanoTime() - begin) / 1_000_000;
+            System.out.println(n + " rabbits per side: BFS path of " + (path.length - 1) + " moves in " + millis + " ms");
+        }
+
+        PackedRabbitLeap largest = new PackedRabbitLeap(MAX_RABBITS);
+        IdaStar idaStar = new IdaStar(largest);
+        long begin = System.nanoTime();
+        long[] path = idaStar.search();
+        long millis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println(MAX_RABBITS + " rabbits per side: IDA* path of " + (path.length - 1) + " moves, "
+                + idaStar.expanded() + " nodes expanded in " + millis + " ms");
+
+        ParallelBfs parallelBfs = new ParallelBfs(largest);
+        begin = System.nanoTime();
+        path = parallelBfs.search();
+        millis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println(MAX_RABBITS + " rabbits per side: parallel BFS path of " + (path.length - 1) + " moves, "
+                + parallelBfs.expanded() + " states in " + parallelBfs.layers() + " layers in " + millis + " ms"
+                + " (" + ForkJoinPool.commonPool().getParallelism() + " workers)");
+
+        begin = System.nanoTime();
+        path = largest.bfs();
+        millis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println(MAX_RABBITS + " rabbits per side: BFS path of " + (path.length - 1) + " moves, "
+                + largest.visited() + " boards stored in " + millis + " ms");
+        begin = System.nanoTime();
+        path = largest.bidirectionalBfs();
+        millis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println(MAX_RABBITS + " rabbits per side: bidirectional BFS path of " + (path.length - 1) + " moves, "
+                + largest.visited() + " boards stored in " + millis + " ms");
+
+        begin = System.nanoTime();
+        path = largest.symmetricBfs();
+        millis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println(MAX_RABBITS + " rabbits per side: symmetric BFS path of " + (path.length - 1) + " moves, "
+                + largest.visited() + " boards stored in " + millis + " ms");
+
+        PuzzleSearch puzzleSearch = new PuzzleSearch(largest);
+        begin = System.nanoTime();
+        path = puzzleSearch.aStar();
+        millis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println(MAX_RABBITS + " rabbits per side: A* through forEachSuccessor, path of " + (path.length - 1)
+                + " moves, " + puzzleSearch.expanded() + " nodes expanded in " + millis + " ms");
+        System.out.println(puzzleSearch.stats().toJson());
+
+        Path directory = Files.createTempDirectory("rabbit-leap-layers");
+        ExternalBfs externalBfs = new ExternalBfs(largest, directory, 1 << 16);
+        begin = System.nanoTime();
+        path = externalBfs.search();
+        millis = (System.nanoTime() - begin) / 1_000_000;
+        Files.delete(directory);
+        System.out.println(MAX_RABBITS + " rabbits per side: external BFS path of " + (path.length - 1) + " moves, "
+                + externalBfs.stored() + " boards written to " + externalBfs.layers() + " layer files in " + millis + " ms");
+    }
+}
+
+
+/*
+                          OUTPUT
+
+                ***Path Using BFS Technique***
+                0 --> [E, E, E, _, W, W, W]
+                1 --> [E, E, _, E, W, W, W]
+                2 --> [E, E, W, E, _, W, W]
+                3 --> [E, E, W, E, W, _, W]
+                4 --> [E, E, W, _, W, E, W]
+                5 --> [E, _, W, E, W, E, W]
+                6 --> [_, E, W, E, W, E, W]
+                7 --> [W, E, _, E, W, E, W]
+                8 --> [W, E, W, E, _, E, W]
+                9 --> [W, E, W, E, W, E, _]
+                10 --> [W, E, W, E, W, _, E]
+                11 --> [W, E, W, _, W, E, E]
+                12 --> [W, _, W, E, W, E, E]
+                13 --> [W, W, _, E, W, E, E]
+                14 --> [W, W, W, E, _, E, E]
+                15 --> [W, W, W, _, E, E, E]
+
+                ***Path Using DFS Technique***
+                0 --> [E, E, E, _, W, W, W]
+                1 --> [E, E, E, W, _, W, W]
+                2 --> [E, E, _, W, E, W, W]
+                3 --> [E, _, E, W, E, W, W]
+                4 --> [E, W, E, _, E, W, W]
+                5 --> [E, W, E, W, E, _, W]
+                6 --> [E, W, E, W, E, W, _]
+                7 --> [E, W, E, W, _, W, E]
+                8 --> [E, W, _, W, E, W, E]
+                9 --> [_, W, E, W, E, W, E]
+                10 --> [W, _, E, W, E, W, E]
+                11 --> [W, W, E, _, E, W, E]
+                12 --> [W, W, E, W, E, _, E]
+                13 --> [W, W, E, W, _, E, E]
+                14 --> [W, W, _, W, E, E, E]
+                15 --> [W, W, W, _, E, E, E]
+
+                10 rabbits per side: BFS path of 120 moves in 24 ms
+                12 rabbits per side: BFS path of 168 moves in 35 ms
+                15 rabbits per side: IDA* path of 255 moves, 257755 nodes expanded in 76 ms
+                15 rabbits per side: parallel BFS path of 255 moves, 760787 states in 255 layers in 334 ms (1 workers)
+                15 rabbits per side: BFS path of 255 moves, 760788 boards stored in 133 ms
+                15 rabbits per side: bidirectional BFS path of 255 moves, 508514 boards stored in 171 ms
+                15 rabbits per side: symmetric BFS path of 255 moves, 380402 boards stored in 110 ms
+                15 rabbits per side: A* through forEachSuccessor, path of 255 moves, 190374 nodes expanded in 176 ms
+                {"algorithm":"aStar","generated":194152,"expanded":190374,"duplicates":3679,"reopened":0,"peakFrontier":100,"peakClosed":190374,"pathLength":256,"nanos":176558203}
+                15 rabbits per side: external BFS path of 255 moves, 760788 boards written to 256 layer files in 779 ms
+*/
@@ -0,0 +1,524 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+// River Bridge for large groups, solved by uniform-cost search (Dijkstra) instead of a
+// BFS capped at 60 minutes. A state is an int: bit i is set when person i is on the W side
+// and bit n when the umbrella is. best[state] holds the cheapest known time to reach it,
+// so the table replaces both the visited set and the parent map.
+//
+// Only schedules where two people walk forward and one brings the umbrella back are
+// generated; some optimal schedule always has that shape (Rote, "Crossing the bridge at
+// night", 2002). Each pair is generated once as i < j, and only the fastest person on W
+// walks back.
+public class PackedRiverBridge {
+    static final int MAX_PEOPLE = 24;   // best[] has 2^(n+1) longs: 256 MB at 24 people
+    static final long UNREACHED = Long.MAX_VALUE;
+
+    private final int n;
+    private final int[] requiredTimes;
+    private final int[] bySpeed;         // people ordered fastest first, for the DFS move order
+    private final int everyone;          // all n person bits
+    private final int umbrella;          // the umbrella bit
+    private final int stateBits;         // low bits of a heap entry that hold the state
+    private long[] best;                 // allocated by the first solve()
+    private int expanded;
+    private final int[] twins;           // groups of two or more people with the same time
+    private boolean symmetry = true;
+
+    // Depth-first state: one mutable path, undone on backtrack, never copied per node
+    private int[] path = new int[64];
+    private int[] cursor = new int[64];  // next move to try at each depth, as i * n + j
+    private long[] elapsed = new long[64];
+    private final BitSet onPath = new BitSet();
+    private int depth;
+    private long nextLimit;
+
+    public PackedRiverBridge(int[] requiredTimes) {
+        int n = requiredTimes.length;
+        if (n < 1 || n > MAX_PEOPLE) {
+            throw new IllegalArgumentException("people must be in 1.." + MAX_PEOPLE + ": " + n);
+        }
+        long total = 0;
+        for (int time : requiredTimes) {
+            if (time < 0) throw new IllegalArgumentException("negative crossing time: " + time);
+            total += time;
+        }
+        this.n = n;
+        this.requiredTimes = requiredTimes.clone();
+        this.bySpeed = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparingInt(i -> requiredTimes[i]))
+                .mapToInt(Integer::intValue).toArray();
+        this.everyone = (1 << n) - 1;
+        this.umbrella = 1 << n;
+        this.stateBits = n + 1;
+        Map<Integer, Integer> sameTime = new HashMap<>();
+        for (int i = 0; i < n; i++) sameTime.merge(requiredTimes[i], 1 << i, (a, b) -> a | b);
+        this.twins = sameTime.values().stream().filter(group -> Integer.bitCount(group) > 1)
+                .mapToInt(Integer::intValue).toArray();
+        // Any optimal time is below 2 * total, which must fit above the state bits
+        if (2 * total >= 1L << (63 - stateBits)) {
+            throw new IllegalArgumentException("crossing times too large for " + n + " people");
+        }
+    }
+
+    public int start() { return 0; }
+    public int goal() { return everyone | umbrella; }
+    public int expanded() { return expanded; }
+
+    public boolean goalTest(int state) {
+        return state == goal();
+    }
+
+    // Whether solve() merges states that differ only by which of several people with the
+    // same crossing time are across; on by default
+    public void setSymmetry(boolean symmetry) {
+        this.symmetry = symmetry;
+    }
+
+    // People with equal times are interchangeable, so only how many of each group are on W
+    // matters. The representative puts the lowest-numbered members of each group there.
+    public int canonical(int state) {
+        if (!symmetry) return state;
+        for (int group : twins) {
+            int across = Integer.bitCount(state & group);
+            state &= ~group;
+            for (int g = group; across > 0; g &= g - 1, across--) state |= Integer.lowestOneBit(g);
+        }
+        return state;
+    }
+
+    // Total time of a schedule: each crossing costs the slowest person who changed sides
+    public long time(int[] path) {
+        long total = 0;
+        for (int i = 1; i < path.length; i++) total += crossingTime(path[i - 1] ^ path[i]);
+        return total;
+    }
+
+    private long crossingTime(int changed) {
+        int slowest = 0;
+        for (int people = changed & everyone; people != 0; people &= people - 1) {
+            slowest = Math.max(slowest, requiredTimes[Integer.numberOfTrailingZeros(people)]);
+        }
+        return slowest;
+    }
+
+    // Minimal total crossing time, or -1 if there is no schedule (never, for n >= 1)
+    public long solve() {
+        int goal = goal();
+        if (best == null) best = new long[1 << stateBits];
+        Arrays.fill(best, UNREACHED);
+        LongMinHeap open = new LongMinHeap();
+        long stateMask = (1L << stateBits) - 1;
+        expanded = 0;
+
+        best[start()] = 0;
+        open.add(start());
+        while (!open.isEmpty()) {
+            long entry = open.poll();
+            int state = (int) (entry & stateMask);
+            long time = entry >>> stateBits;
+            if (time > best[state]) continue;  // stale: a cheaper entry was polled already
+            if (state == goal) return time;
+            expanded++;
+
+            if ((state & umbrella) == 0) {
+                int east = ~state & everyone;
+                if (Integer.bitCount(east) == 1) {
+                    relax(open, state | east | umbrella, time + requiredTimes[Integer.numberOfTrailingZeros(east)]);
+                    continue;
+                }
+                for (int a = east; a != 0; a &= a - 1) {
+                    int i = Integer.numberOfTrailingZeros(a);
+                    for (int b = a & (a - 1); b != 0; b &= b - 1) {
+                        int j = Integer.numberOfTrailingZeros(b);
+                        relax(open, state | (1 << i) | (1 << j) | umbrella,
+                                time + Math.max(requiredTimes[i], requiredTimes[j]));
+                    }
+                }
+            } else {
+                int i = fastest(state & everyone);
+                relax(open, state & ~(1 << i) & ~umbrella, time + requiredTimes[i]);
+            }
+        }
+        return -1;
+    }
+
+    // The fastest person in group. Sending anyone slower back is never better: swapping the
+    // two for the rest of the schedule costs no more.
+    private int fastest(int group) {
+        int fastest = Integer.numberOfTrailingZeros(group);
+        for (int rest = group & (group - 1); rest != 0; rest &= rest - 1) {
+            int i = Integer.numberOfTrailingZeros(rest);
+            if (requiredTimes[i] < requiredTimes[fastest]) fastest = i;
+        }
+        return fastest;
+    }
+
+    private void relax(LongMinHeap open, int child, long time) {
+        child = canonical(child);
+        if (time < best[child]) {
+            best[child] = time;
+            open.add((time << stateBits) | child);
+        }
+    }
+
+    // Lower bound on the time still needed from state, with the umbrella on E and k people
+    // there. Every forward crossing carries at most two and every return at least one, and
+    // the net flow must be k, so there are at least k - 1 forward crossings and k - 2
+    // returns. Forward crossings cost at least every other time in slowest-first order
+    // (pairing the slowest together) plus the fastest time for each crossing beyond
+    // ceil(k / 2); returns cost at least the fastest time. With the umbrella on W, one more
+    // return comes first and the returner joins the people to carry.
+    public long lowerBound(int state) {
+        int east = ~state & everyone;
+        if (east == 0) return 0;
+        int fastest = requiredTimes[bySpeed[0]];
+        boolean returnFirst = (state & umbrella) != 0;
+        long slowPairs = 0;
+        int k = 0;
+        for (int s = n - 1; s >= 0; s--) {
+            if ((east & (1 << bySpeed[s])) == 0) continue;
+            if (k % 2 == 0) slowPairs += requiredTimes[bySpeed[s]];
+            k++;
+        }
+        if (returnFirst) k++;   // the returner is at least as fast as anyone, so slowPairs holds
+        if (k == 1) return slowPairs + (returnFirst ? fastest : 0);
+        long forward = k - 1;
+        long extraForward = forward - (k + 1) / 2;
+        long returns = k - 2 + (returnFirst ? 1 : 0);
+        return slowPairs + (extraForward + returns) * fastest;
+    }
+
+    // The search space with the same move set as solve(), for IdaStar
+    public PackedPuzzle asPuzzle() {
+        return new PackedPuzzle() {
+            public long start() { return PackedRiverBridge.this.start(); }
+            public boolean goalTest(long state) { return state == goal(); }
+            public int maxMoves() { return Math.max(1, n * (n - 1) / 2); }
+            public long cost(long from, long to) { return crossingTime((int) (from ^ to)); }
+            public long heuristic(long state) { return lowerBound((int) state); }
+            public String toString(long state) { return PackedRiverBridge.this.toString((int) state); }
+
+            public void forEachSuccessor(long state, SuccessorSink sink) {
+                int s = (int) state;
+                if ((s & umbrella) != 0) {
+                    int i = fastest(s & everyone);
+                    sink.accept(s & ~(1 << i) & ~umbrella, requiredTimes[i]);
+                    return;
+                }
+                int east = ~s & everyone;
+                if (Integer.bitCount(east) == 1) {
+                    sink.accept(s | east | umbrella, requiredTimes[Integer.numberOfTrailingZeros(east)]);
+                    return;
+                }
+                for (int a = east; a != 0; a &= a - 1) {
+                    int i = Integer.numberOfTrailingZeros(a);
+                    for (int b = a & (a - 1); b != 0; b &= b - 1) {
+                        int j = Integer.numberOfTrailingZeros(b);
+                        sink.accept(s | (1 << i) | (1 << j) | umbrella, Math.max(requiredTimes[i], requiredTimes[j]));
+                    }
+                }
+            }
+
+            public int moveGen(long state, long[] out) {
+                int s = (int) state;
+                int count = 0;
+                if ((s & umbrella) != 0) {
+                    out[count++] = s & ~(1 << fastest(s & everyone)) & ~umbrella;
+                    return count;
+                }
+                int east = ~s & everyone;
+                if (Integer.bitCount(east) == 1) {
+                    out[count++] = s | east | umbrella;
+                    return count;
+                }
+                for (int a = east; a != 0; a &= a - 1) {
+                    int i = Integer.numberOfTrailingZeros(a);
+                    for (int b = a & (a - 1); b != 0; b &= b - 1) {
+                        out[count++] = s | (1 << i) | (1 << Integer.numberOfTrailingZeros(b)) | umbrella;
+                    }
+                }
+                return count;
+            }
+        };
+    }
+
+    // Walks back from the goal through states whose best time accounts for the crossing,
+    // so no parent table is needed, then replays the crossings from the real start. Only
+    // valid after solve() reached the goal.
+    public int[] constructPath() {
+        List<Integer> path = new ArrayList<>();
+        int state = goal();
+        path.add(state);
+        while (state != start()) {
+            state = predecessor(state);
+            path.add(state);
+        }
+        Collections.reverse(path);
+        return concretize(path.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private long bestOf(int state) {
+        return best[canonical(state)];
+    }
+
+    // A canonical state one crossing before canonical state, on a fastest schedule
+    private int predecessor(int state) {
+        long time = best[state];
+        if ((state & umbrella) != 0) {
+            // the last crossing went forward, carrying one or two people now on W
+            int west = state & everyone;
+            for (int a = west; a != 0; a &= a - 1) {
+                int i = Integer.numberOfTrailingZeros(a);
+                int single = (state & ~(1 << i)) & ~umbrella;
+                if (bestOf(single) != UNREACHED && bestOf(single) + requiredTimes[i] == time
+                        && Integer.bitCount(~single & everyone) == 1) {
+                    return canonical(single);
+                }
+                for (int b = a & (a - 1); b != 0; b &= b - 1) {
+                    int j = Integer.numberOfTrailingZeros(b);
+                    int pair = single & ~(1 << j);
+                    if (bestOf(pair) != UNREACHED && bestOf(pair) + Math.max(requiredTimes[i], requiredTimes[j]) == time) {
+                        return canonical(pair);
+                    }
+                }
+            }
+        } else {
+            // the last crossing brought one person back to E
+            for (int east = ~state & everyone; east != 0; east &= east - 1) {
+                int i = Integer.numberOfTrailingZeros(east);
+                int before = state | (1 << i) | umbrella;
+                if (bestOf(before) != UNREACHED && bestOf(before) + requiredTimes[i] == time) return canonical(before);
+            }
+        }
+        throw new IllegalStateException("no predecessor for " + toString(state) + "; call solve() first");
+    }
+
+    // Maps a path of canonical states back to real ones: from the real start, each step takes
+    // a crossing of the same duration whose result is equivalent to the next canonical state
+    private int[] concretize(int[] canonicalPath) {
+        int[] path = new int[canonicalPath.length];
+        path[0] = start();
+        for (int s = 1; s < path.length; s++) {
+            int state = path[s - 1];
+            long duration = best[canonicalPath[s]] - best[canonicalPath[s - 1]];
+            int side = (state & umbrella) != 0 ? state & everyone : ~state & everyone;
+            path[s] = -1;
+            for (int a = side; a != 0 && path[s] < 0; a &= a - 1) {
+                int i = Integer.numberOfTrailingZeros(a);
+                for (int b = a; b != 0 && path[s] < 0; b &= b - 1) {
+                    int j = Integer.numberOfTrailingZeros(b);
+                    int child = state ^ (1 << i) ^ (i == j ? 0 : 1 << j) ^ umbrella;
+                    if (canonical(child) == canonicalPath[s] && crossingTime(state ^ child) == duration) path[s] = child;
+                }
+            }
+            if (path[s] < 0) {
+                throw new IllegalStateException("no crossing from " + toString(state) + " matches step " + s
+                        + " of the canonical path");
+            }
+        }
+        return path;
+    }
+
+    public String toString(int state) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append((state & (1 << i)) != 0 ? 'W' : 'E');
+        }
+        return sb.append("], umbrella position: ").append((state & umbrella) != 0 ? 'W' : 'E').toString();
+    }
+
+    public void printPath(int[] path) {
+        long time = 0;
+        for (int i = 0; i < path.length; i++) {
+            if (i > 0) time += crossingTime(path[i - 1] ^ path[i]);
+            System.out.println(i + " * --> " + toString(path[i]) + ", time taken: " + time);
+        }
+    }
+
+    // Depth-first search over every single and pair crossing, like RiverBridge.DFS, for the
+    // first schedule that finishes within timeLimit; returns its states or an empty array.
+    public int[] dfs(long timeLimit) {
+        return boundedDfs(timeLimit) ? Arrays.copyOf(path, depth) : new int[0];
+    }
+
+    // Repeats dfs with the limit raised each round to the cheapest time the previous round
+    // cut off, so the first schedule found is a fastest one. Memory stays proportional to
+    // the depth of the path plus one on-path bit per state.
+    public int[] iterativeDeepening() {
+        long limit = 0;
+        for (int time : requiredTimes) limit = Math.max(limit, time);  // the slowest must cross
+        while (true) {
+            if (boundedDfs(limit)) return Arrays.copyOf(path, depth);
+            if (nextLimit == UNREACHED) return new int[0];
+            limit = nextLimit;
+        }
+    }
+
+    private boolean boundedDfs(long limit) {
+        int goal = goal();
+        onPath.clear();
+        nextLimit = UNREACHED;
+        depth = 0;
+        push(start(), 0);
+
+        while (depth > 0) {
+            int top = depth - 1;
+            int state = path[top];
+            if (state == goal) return true;
+
+            // next untried crossing by people on the umbrella's side: pairs come first going
+            // forward and singles first coming back, fastest people first, which reaches cheap
+            // schedules sooner
+            boolean forward = (state & umbrella) == 0;
+            int side = forward ? ~state & everyone : state & everyone;
+            int first = forward ? n * n : n;   // size of the first block of move numbers
+            int k = cursor[top];
+            int child = -1;
+            long time = 0;
+            for (; k < n * n + n && child < 0; k++) {
+                boolean pair = (k < first) == forward;
+                int m = k < first ? k : k - first;
+                if (pair && m % n <= m / n) continue;
+                int i = bySpeed[pair ? m / n : m];
+                int j = bySpeed[pair ? m % n : m];
+                if ((side & (1 << i)) == 0 || (side & (1 << j)) == 0) continue;
+                int next = state ^ (1 << i) ^ (i == j ? 0 : 1 << j) ^ umbrella;
+                if (onPath.get(next)) continue;
+                long t = elapsed[top] + Math.max(requiredTimes[i], requiredTimes[j]);
+                if (t > limit) {
+                    nextLimit = Math.min(nextLimit, t);
+                    continue;
+                }
+                child = next;
+                time = t;
+            }
+            cursor[top] = k;
+            if (child < 0) {
+                // every move from here is tried: undo it and backtrack
+                onPath.clear(state);
+                depth--;
+            } else {
+                push(child, time);
+            }
+        }
+        return false;
+    }
+
+    private void push(int state, long time) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+            cursor = Arrays.copyOf(cursor, depth * 2);
+            elapsed = Arrays.copyOf(elapsed, depth * 2);
+        }
+        path[depth] = state;
+        cursor[depth] = 0;
+        elapsed[depth] = time;
+        onPath.set(state);
+        depth++;
+    }
+
+    public static void main(String[] args) {
+        PackedRiverBridge small = new PackedRiverBridge(new int[]{5, 10, 20, 25});
+        System.out.println("***Minimal Time Using Uniform-Cost Search*** ");
+        System.out.println("Minimal time: " + small.solve());
+        small.printPath(small.constructPath());
+        System.out.println();
+
+        System.out.println("***Path Using Backtracking DFS Within 60*** ");
+        small.printPath(small.dfs(60));
+        System.out.println();
+
+        System.out.println("***Path Using Iterative Deepening*** ");
+        small.printPath(small.iterativeDeepening());
+        System.out.println();
+
+        Random random = new Random(42);
+        for (int people : new int[]{16, 20}) {
+            int[] times = new int[people];
+            for (int i = 0; i < people; i++) times[i] = 1 + random.nextInt(100);
+            PackedRiverBridge bridge = new PackedRiverBridge(times);
+            long begin = System.nanoTime();
+            long minimal = bridge.solve();
+            long elapsed = (System.nanoTime() - begin) / 1_000_000;
+            System.out.println(people + " people: minimal time " + minimal + ", "
+                    + bridge.expanded() + " states expanded in " + elapsed + " ms");
+        }
+
+        // Many equal times: with symmetry only the number across from each group matters
+        int[] tied = new int[22];
+        for (int i = 0; i < tied.length; i++) tied[i] = 1 + random.nextInt(10);
+        PackedRiverBridge crowd = new PackedRiverBridge(tied);
+        for (boolean symmetry : new boolean[]{false, true}) {
+            crowd.setSymmetry(symmetry);
+            long begin = System.nanoTime();
+            long minimal = crowd.solve();
+            long elapsed = (System.nanoTime() - begin) / 1_000_000;
+            System.out.println(tied.length + " people, times 1..10, symmetry " + (symmetry ? "on" : "off")
+                    + ": minimal time " + minimal + ", " + crowd.expanded() + " states expanded in " + elapsed + " ms");
+        }
+
+        // Deep DFS on the largest group, without the 256 MB best-time table, within the time it takes
+        // the fastest person to escort everyone else across one by one
+        int[] times = new int[MAX_PEOPLE];
+        for (int i = 0; i < times.length; i++) times[i] = 1 + random.nextInt(100);
+        int fastest = Arrays.stream(times).min().getAsInt();
+        long escort = Arrays.stream(times).asLongStream().sum() - fastest + (long) (times.length - 2) * fastest;
+        PackedRiverBridge group = new PackedRiverBridge(times);
+        int[] schedule = group.dfs(escort);
+        System.out.println(times.length + " people: DFS schedule of " + (schedule.length - 1)
+                + " crossings taking " + group.time(schedule) + " (limit " + escort + ")");
+
+        for (int people : new int[]{6, 8}) {
+            int[] groupTimes = new int[people];
+            for (int i = 0; i < people; i++) groupTimes[i] = 1 + random.nextInt(100);
+            IdaStar idaStar = new IdaStar(new PackedRiverBridge(groupTimes).asPuzzle());
+            long begin = System.nanoTime();
+            long[] path = idaStar.search();
+            long elapsed = (System.nanoTime() - begin) / 1_000_000;
+            System.out.println(people + " people: IDA* minimal time " + idaStar.cost(path) + ", "
+                    + idaStar.expanded() + " nodes expanded in " + idaStar.iterations() + " rounds, " + elapsed + " ms");
+        }
+    }
+}
+
+
+
+/*
+                                   OUTPUT
+
+        ***Minimal Time Using Uniform-Cost Search*** 
+        Minimal time: 60
+        0 * --> [E, E, E, E], umbrella position: E, time taken: 0
+        1 * --> [W, W, E, E], umbrella position: W, time taken: 10
+        2 * --> [E, W, E, E], umbrella position: E, time taken: 15
+        3 * --> [E, W, W, W], umbrella position: W, time taken: 40
+        4 * --> [E, E, W, W], umbrella position: E, time taken: 50
+        5 * --> [W, W, W, W], umbrella position: W, time taken: 60
+
+        ***Path Using Backtracking DFS Within 60*** 
+        0 * --> [E, E, E, E], umbrella position: E, time taken: 0
+        1 * --> [W, W, E, E], umbrella position: W, time taken: 10
+        2 * --> [E, W, E, E], umbrella position: E, time taken: 15
+        3 * --> [E, W, W, W], umbrella position: W, time taken: 40
+        4 * --> [E, E, W, W], umbrella position: E, time taken: 50
+        5 * --> [W, W, W, W], umbrella position: W, time taken: 60
+
+        ***Path Using Iterative Deepening*** 
+        0 * --> [E, E, E, E], umbrella position: E, time taken: 0
+        1 * --> [W, W, E, E], umbrella position: W, time taken: 10
+        2 * --> [E, W, E, E], umbrella position: E, time taken: 15
+        3 * --> [E, W, W, W], umbrella position: W, time taken: 40
+        4 * --> [E, E, W, W], umbrella position: E, time taken: 50
+        5 * --> [W, W, W, W], umbrella position: W, time taken: 60
+
+        16 people: minimal time 538, 73709 states expanded in 125 ms
+        20 people: minimal time 632, 442349 states expanded in 465 ms
+        22 people, times 1..10, symmetry off: minimal time 91, 6291431 states expanded in 5000 ms
+        22 people, times 1..10, symmetry on: minimal time 91, 56436 states expanded in 78 ms
+        24 people: DFS schedule of 45 crossings taking 1394 (limit 1394)
+        6 people: IDA* minimal time 183, 974 nodes expanded in 8 rounds, 1 ms
+        8 people: IDA* minimal time 495, 42 nodes expanded in 1 rounds, 0 ms
+
+ */
@@ -0,0 +1,124 @@
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Level-synchronous breadth-first search over a PackedPuzzle. Each layer of the frontier
+// is cut into chunks that are expanded in parallel on a fork-join pool; the next layer is
+// every child that was claimed for the first time. Claims go through a visited map split
+// into stripes, each a LongLongHashMap from state to parent guarded by its own lock, so
+// threads only contend when their children hash to the same stripe.
+//
+// The search stops at the end of the first layer that holds the goal, so the path has the
+// fewest moves, exactly as the sequential bfs. State -1 is reserved as "no parent".
+class ParallelBfs {
+    static final long NO_PARENT = -1L;
+    private static final int STRIPE_BITS = 6;
+    private static final int CHUNK = 512;     // frontier states per task
+
+    private final PackedPuzzle puzzle;
+    private final ForkJoinPool pool;
+    private final LongLongHashMap[] visited = new LongLongHashMap[1 << STRIPE_BITS];
+    private volatile boolean found;
+    private long expanded;
+    private int layers;
+
+    public ParallelBfs(PackedPuzzle puzzle) {
+        this(puzzle, ForkJoinPool.commonPool());
+    }
+
+    public ParallelBfs(PackedPuzzle puzzle, ForkJoinPool pool) {
+        this.puzzle = puzzle;
+        this.pool = pool;
+    }
+
+    // States expanded and layers completed by the last search
+    public long expanded() { return expanded; }
+    public int layers() { return layers; }
+
+    private LongLongHashMap stripe(long state) {
+        // the high hash bits pick the stripe, the low ones the slot inside it
+        return visited[LongLongHashMap.mix(state) >>> (32 - STRIPE_BITS)];
+    }
+
+    // Claims state for parent; true if no thread had reached it before
+    private boolean claim(long state, long parent) {
+        LongLongHashMap stripe = stripe(state);
+        synchronized (stripe) {
+            return stripe.putIfAbsent(state, parent);
+        }
+    }
+
+    // Returns a shortest path from start to goal, or an empty array if there is none
+    public long[] search() {
+        for (int i = 0; i < visited.length; i++) visited[i] = new LongLongHashMap();
+        found = false;
+        expanded = 0;
+        layers = 0;
+
+        long start = puzzle.start();
+        claim(start, NO_PARENT);
+        if (puzzle.goalTest(start)) return constructPath(start);
+
+        long[] frontier = {start};
+        while (frontier.length > 0 && !found) {
+            long[] layer = frontier;
+            int chunks = (layer.length + CHUNK - 1) / CHUNK;
+            long[][] claimed = new long[chunks][];
+            try {
+                pool.submit(() -> IntStream.range(0, chunks).parallel()
+                        .forEach(c -> claimed[c] = expand(layer, c * CHUNK, Math.min(layer.length, (c + 1) * CHUNK))))
+                    .get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("search interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("layer expansion failed", e.getCause());
+            }
+            expanded += layer.length;
+            layers++;
+
+            int size = 0;
+            for (long[] part : claimed) size += part.length;
+            frontier = new long[size];
+            int at = 0;
+            for (long[] part : claimed) {
+                System.arraycopy(part, 0, frontier, at, part.length);
+                at += part.length;
+            }
+        }
+
+        if (!found) return new long[0];
+        for (long state : frontier) {
+            if (puzzle.goalTest(state)) return constructPath(state);
+        }
+        throw new IllegalStateException("goal claimed but missing from the last layer");
+    }
+
+    // Expands layer[from, to) and returns the children this task claimed first
+    private long[] expand(long[] layer, int from, int to) {
+        long[] children = new long[puzzle.maxMoves()];
+        long[] out = new long[Math.max(16, (to - from) * 2)];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            long state = layer[i];
+            int count = puzzle.moveGen(state, children);
+            for (int j = 0; j < count; j++) {
+                long child = children[j];
+                if (!claim(child, state)) continue;
+                if (puzzle.goalTest(child)) found = true;
+                if (size == out.length) out = Arrays.copyOf(out, size * 2);
+                out[size++] = child;
+            }
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    private long[] constructPath(long state) {
+        int length = 0;
+        for (long temp = state; temp != NO_PARENT; temp = stripe(temp).get(temp, NO_PARENT)) length++;
+        long[] path = new long[length];
+        for (long temp = state; temp != NO_PARENT; temp = stripe(temp).get(temp, NO_PARENT)) path[--length] = temp;
+        return path;
+    }
+}
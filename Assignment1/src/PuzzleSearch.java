@@ -0,0 +1,216 @@
+import java.util.Arrays;
+
+// BFS, DFS, A* and greedy best-first over any PackedPuzzle, driven by forEachSuccessor.
+// The sinks are created once per PuzzleSearch, states are primitive longs, and queues,
+// heaps and maps are flat arrays that only grow, so expanding a node allocates nothing.
+// State -1 is reserved as "no parent".
+//
+// Every search fills a SearchStats, available from stats() and handed to the listener.
+class PuzzleSearch {
+    static final long NO_PARENT = -1L;
+
+    private final PackedPuzzle puzzle;
+    private final LongLongHashMap parents = new LongLongHashMap();
+    private final LongLongHashMap bestG = new LongLongHashMap();
+    private final LongMinHeap open = new LongMinHeap();
+    private long[] queue = new long[1024];     // BFS queue or DFS stack
+    private int head;
+    private int tail;
+    private long[] nodeState = new long[1024]; // heap entries point into these by index
+    private long[] nodeG = new long[1024];
+    private int nodes;
+    private long current;                      // state being expanded
+    private long currentG;
+    private long closed;                       // states A* holds expanded, for the peak
+    private SearchStats stats;
+    private SearchListener listener;
+
+    private final SuccessorSink discover = this::discover;
+    private final SuccessorSink relax = this::relax;
+    private final SuccessorSink greedy = this::greedy;
+
+    public PuzzleSearch(PackedPuzzle puzzle) {
+        this.puzzle = puzzle;
+    }
+
+    // Nodes expanded by the last search
+    public long expanded() {
+        return stats == null ? 0 : stats.expanded;
+    }
+
+    // What the last search did
+    public SearchStats stats() {
+        return stats;
+    }
+
+    // Listener for the searches that follow, or null for none
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    private void reset(String algorithm) {
+        parents.clear();
+        bestG.clear();
+        open.clear();
+        head = 0;
+        tail = 0;
+        nodes = 0;
+        closed = 0;
+        stats = new SearchStats(algorithm);
+    }
+
+    private void expand(long state, long g) {
+        stats.expanded++;
+        if (listener != null) listener.expanded(state, g);
+    }
+
+    private long[] finish(long[] path) {
+        stats.finish(path.length);
+        if (listener != null) listener.finished(stats);
+        return path;
+    }
+
+    // Breadth-first: fewest moves; the parent map doubles as the visited set
+    public long[] bfs() {
+        reset("bfs");
+        long start = puzzle.start();
+        parents.put(start, NO_PARENT);
+        enqueue(start);
+        while (head < tail) {
+            current = queue[head++];
+            if (puzzle.goalTest(current)) return finish(constructPath(current));
+            expand(current, 0);
+            stats.closed(stats.expanded);
+            puzzle.forEachSuccessor(current, discover);
+            stats.frontier(tail - head);
+        }
+        return finish(new long[0]);
+    }
+
+    // Depth-first: the first path found; queue is used as a stack
+    public long[] dfs() {
+        reset("dfs");
+        long start = puzzle.start();
+        parents.put(start, NO_PARENT);
+        enqueue(start);
+        while (tail > 0) {
+            current = queue[--tail];
+            if (puzzle.goalTest(current)) return finish(constructPath(current));
+            expand(current, 0);
+            stats.closed(stats.expanded);
+            puzzle.forEachSuccessor(current, discover);
+            stats.frontier(tail);
+        }
+        return finish(new long[0]);
+    }
+
+    // BFS and DFS never expand a state twice, so their closed set is every state expanded
+    private void discover(long child, long cost) {
+        stats.generated++;
+        if (parents.putIfAbsent(child, current)) enqueue(child);
+        else stats.duplicates++;
+    }
+
+    private void enqueue(long state) {
+        if (tail == queue.length) queue = Arrays.copyOf(queue, tail * 2);
+        queue[tail++] = state;
+    }
+
+    // A*: cheapest path when the heuristic is admissible. Open entries are (f, node) packed
+    // into one long, and an entry whose g is above the best known g is skipped as stale.
+    // Reopening on a cheaper g keeps the result optimal with an inconsistent heuristic.
+    // bestG holds g while a state is open and ~g once it is expanded, which tells a reopen
+    // from a decrease without a separate closed set.
+    public long[] aStar() {
+        reset("aStar");
+        long start = puzzle.start();
+        parents.put(start, NO_PARENT);
+        bestG.put(start, 0);
+        push(start, 0, puzzle.heuristic(start));
+        while (!open.isEmpty()) {
+            int node = node(open.poll());
+            current = nodeState[node];
+            currentG = nodeG[node];
+            if (currentG != bestG.get(current, Long.MAX_VALUE)) continue;
+            if (puzzle.goalTest(current)) return finish(constructPath(current));
+            bestG.put(current, ~currentG);
+            stats.closed(++closed);
+            expand(current, currentG);
+            puzzle.forEachSuccessor(current, relax);
+            stats.frontier(open.size());
+        }
+        return finish(new long[0]);
+    }
+
+    private void relax(long child, long cost) {
+        stats.generated++;
+        long g = currentG + cost;
+        long known = bestG.get(child, Long.MAX_VALUE);
+        if (g >= (known < 0 ? ~known : known)) {
+            stats.duplicates++;
+            return;
+        }
+        if (known < 0) {
+            stats.reopened++;
+            closed--;
+        }
+        bestG.put(child, g);
+        parents.put(child, current);
+        push(child, g, g + puzzle.heuristic(child));
+    }
+
+    // Greedy best-first: the frontier is ordered on h alone and a state is never opened twice
+    public long[] bestFirst() {
+        reset("bestFirst");
+        long start = puzzle.start();
+        parents.put(start, NO_PARENT);
+        push(start, 0, puzzle.heuristic(start));
+        while (!open.isEmpty()) {
+            current = nodeState[node(open.poll())];
+            if (puzzle.goalTest(current)) return finish(constructPath(current));
+            expand(current, 0);
+            stats.closed(stats.expanded);
+            puzzle.forEachSuccessor(current, greedy);
+            stats.frontier(open.size());
+        }
+        return finish(new long[0]);
+    }
+
+    private void greedy(long child, long cost) {
+        stats.generated++;
+        if (parents.putIfAbsent(child, current)) push(child, 0, puzzle.heuristic(child));
+        else stats.duplicates++;
+    }
+
+    private void push(long state, long g, long priority) {
+        if (priority > Integer.MAX_VALUE) throw new IllegalStateException("priority too large: " + priority);
+        if (nodes == nodeState.length) {
+            nodeState = Arrays.copyOf(nodeState, nodes * 2);
+            nodeG = Arrays.copyOf(nodeG, nodes * 2);
+        }
+        nodeState[nodes] = state;
+        nodeG[nodes] = g;
+        // among equal priorities the newest node comes out first, which dives toward the goal
+        open.add((priority << 32) | (Integer.MAX_VALUE - nodes));
+        nodes++;
+    }
+
+    private static int node(long entry) {
+        return Integer.MAX_VALUE - (int) entry;
+    }
+
+    private long[] constructPath(long state) {
+        int length = 0;
+        for (long temp = state; temp != NO_PARENT; temp = parents.get(temp, NO_PARENT)) length++;
+        long[] path = new long[length];
+        for (long temp = state; temp != NO_PARENT; temp = parents.get(temp, NO_PARENT)) path[--length] = temp;
+        return path;
+    }
+
+    // Cost of a path returned by any of the searches
+    public long cost(long[] path) {
+        long total = 0;
+        for (int i = 1; i < path.length; i++) total += puzzle.cost(path[i - 1], path[i]);
+        return total;
+    }
+}
@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.function.Consumer;
 
 class State{
     List<Character> state;
@@ -14,31 +15,36 @@ class State{
 
     public List<State> moveGen() {
         List<State> children = new ArrayList<>();
+        forEachChild( children::add );
+        return children;
+    }
+
+    // moveGen without the list: each child goes straight to visit, in the same order
+    public void forEachChild( Consumer<State> visit ) {
         for (int i = 0; i < state.size(); i++) {
             char ch = state.get(i);
             if (ch == 'E') {
                 if (i + 1 < state.size() && state.get(i + 1) == '_') {
                     List<Character> newState = new ArrayList<>(state);
                     Collections.swap(newState, i, i + 1);
-                    children.add(new State(newState));
+                    visit.accept(new State(newState));
                 } else if (i + 2 < state.size() && state.get(i + 2) == '_') {
                     List<Character> newState = new ArrayList<>(state);
                     Collections.swap(newState, i, i + 2);
-                    children.add(new State(newState));
+                    visit.accept(new State(newState));
                 }
             } else if (ch == 'W') {
                 if (i - 1 >= 0 && state.get(i - 1) == '_') {
                     List<Character> newState = new ArrayList<>(state);
                     Collections.swap(newState, i, i - 1);
-                    children.add(new State(newState));
+                    visit.accept(new State(newState));
                 } else if (i - 2 >= 0 && state.get(i - 2) == '_') {
                     List<Character> newState = new ArrayList<>(state);
                     Collections.swap(newState, i, i - 2);
-                    children.add(new State(newState));
+                    visit.accept(new State(newState));
                 }
             }
         }
-        return children;
     }
 
     @Override
@@ -54,12 +60,71 @@ class State{
 
 public class RabbitLeap {
 
-    public List<State> constructPath( State curState , Map<State , State> parentMap ){
+    private SearchListener listener;
+    private SearchStats stats;
+
+    // Listener told when each search finishes, or null for none
+    public void setListener( SearchListener listener ){
+        this.listener = listener;
+    }
+
+    // What the last bfs or dfs did
+    public SearchStats stats(){
+        return stats;
+    }
+
+    private void finish( int pathLength ){
+        stats.finish(pathLength);
+        if( listener != null ) listener.finished(stats);
+    }
+
+    // The search tree is keyed on boards packed two bits per cell as in PackedRabbitLeap
+    // (0 = gap, 1 = E, 2 = W). Each board maps to one byte: where the gap was before the move
+    // that reached it, relative to where it is now, stored + 2 so the start reads ROOT, with
+    // CLOSED added once dfs expands the board (dfs may push a board again until then). The
+    // rabbit that moved sits at that offset, so the path is replayed by undoing moves from
+    // the goal instead of a HashMap<State,State>.
+    private static final byte ROOT = 2;
+    private static final byte CLOSED = 8;
+    private static final byte UNSEEN = -1;
+
+    static long pack( State s ){
+        long board = 0;
+        for( int i = 0 ; i < s.state.size() ; i++ ){
+            char c = s.state.get(i);
+            board |= (long) ( c == 'E' ? 1 : c == 'W' ? 2 : 0 ) << ( 2 * i );
+        }
+        return board;
+    }
+
+    static State unpack( long board , int cells ){
+        List<Character> state = new ArrayList<>();
+        for( int i = 0 ; i < cells ; i++ ){
+            int c = (int) ( board >>> ( 2 * i ) ) & 3;
+            state.add( c == 1 ? 'E' : c == 2 ? 'W' : '_' );
+        }
+        return new State(state);
+    }
+
+    private static int gapIndex( long board ){
+        int i = 0;
+        while( ( ( board >>> ( 2 * i ) ) & 3 ) != 0 ) i++;
+        return i;
+    }
+
+    private static byte moveCode( long parent , long child ){
+        return (byte) ( gapIndex(parent) - gapIndex(child) + ROOT );
+    }
+
+    public List<State> constructPath( long board , LongByteHashMap tree , int cells ){
         List<State> path = new ArrayList<>();
-        State temp = curState;
-        while( temp != null ){
-            path.add( temp );
-            temp = parentMap.get(temp);
+        path.add( unpack(board,cells) );
+        for( int code = tree.get(board,UNSEEN) & ~CLOSED ; code != ROOT ; code = tree.get(board,UNSEEN) & ~CLOSED ){
+            int gap = gapIndex(board);
+            int from = gap + code - ROOT;
+            long rabbit = ( board >>> ( 2 * from ) ) & 3;
+            board = ( board & ~( 3L << ( 2 * from ) ) ) | ( rabbit << ( 2 * gap ) );
+            path.add( unpack(board,cells) );
         }
         Collections.reverse(path);
         return path;
@@ -73,57 +138,83 @@ public class RabbitLeap {
 
     public void bfs( State start ){
         Queue<State> q = new LinkedList<>();
-        Map<State,State> parentMap = new HashMap<>();
-        Map<State,Boolean> visited = new HashMap<>();
+        LongByteHashMap tree = new LongByteHashMap();
+        int cells = start.state.size();
+
+        stats = new SearchStats("bfs");
 
-        visited.put(start,true);
-        parentMap.put(start,null);
+        tree.put( pack(start) , ROOT );
 
         q.offer(start);
 
         while( !q.isEmpty() ){
             State curState = q.poll();
+            long cur = pack(curState);
             if( curState.goalTest() ){
-                List<State> path = constructPath(curState,parentMap);
+                List<State> path = constructPath(cur,tree,cells);
                 printPath(path);
+                finish(path.size());
                 return;
             }
-            visited.put(curState , true );
-            List<State> childrens = curState.moveGen();
-            for( State children : childrens ){
-                if( !visited.getOrDefault(children,false) ){
+            // a board is queued once, when first seen, so every board expanded is a new one
+            stats.expanded++;
+            stats.closed(stats.expanded);
+            curState.forEachChild( children -> {
+                stats.generated++;
+                long child = pack(children);
+                byte known = tree.get(child,UNSEEN);
+                if( known == UNSEEN ){
                     q.offer( children );
-                    parentMap.put( children , curState );
+                    tree.put( child , moveCode(cur,child) );
+                } else {
+                    stats.duplicates++;
                 }
-            }
+            });
+            stats.frontier(q.size());
         }
+        finish(0);
     }
     public void dfs( State start ){
         Stack<State> st = new Stack<>();
-        Map<State,State> parentMap = new HashMap<>();
-        Map<State,Boolean> visited = new HashMap<>();
+        LongByteHashMap tree = new LongByteHashMap();
+        int cells = start.state.size();
+        int closed = 0;
+
+        stats = new SearchStats("dfs");
 
-        visited.put(start,true);
-        parentMap.put(start,null);
+        tree.put( pack(start) , ROOT );
         st.add(start);
 
         while( !st.isEmpty() ){
             State curState = st.pop();
+            long cur = pack(curState);
+            byte code = tree.get(cur,UNSEEN);
+            if( ( code & CLOSED ) != 0 ) continue;     // pushed twice; expanded already
             if( curState.goalTest() ){
-                List<State> path = constructPath(curState,parentMap);
+                List<State> path = constructPath(cur,tree,cells);
                 printPath(path);
+                finish(path.size());
                 return;
             }
-            visited.put(curState,true);
-            List<State> childrens = curState.moveGen();
-            for( State children : childrens ){
-                if( !visited.getOrDefault(children,false) ){
-                    parentMap.put(children,curState);
+            tree.put( cur , (byte) ( code | CLOSED ) );
+            closed++;
+            stats.expanded++;
+            stats.closed(closed);
+            curState.forEachChild( children -> {
+                stats.generated++;
+                long child = pack(children);
+                byte known = tree.get(child,UNSEEN);
+                if( known == UNSEEN || ( known & CLOSED ) == 0 ){
+                    tree.put( child , moveCode(cur,child) );
                     st.add(children);
+                } else {
+                    stats.duplicates++;
                 }
-            }
+            });
+            stats.frontier(st.size());
 
         }
+        finish(0);
 
     }
 
@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.function.Consumer;
 
 class State {
     List<String> state; // "E" or "W"
@@ -19,6 +20,12 @@ class State {
 
     public List<State> moveGen() {
         List<State> children = new ArrayList<>();
+        forEachChild(children::add);
+        return children;
+    }
+
+    // moveGen without the list: each child goes straight to visit, in the same order
+    public void forEachChild(Consumer<State> visit) {
         String newPos = umbrellaPos.equals("E") ? "W" : "E";
 
         for (int i = 0; i < state.size(); i++) {
@@ -27,18 +34,16 @@ class State {
                     List<String> newState = new ArrayList<>(state);
                     newState.set(i, newPos);
                     int newTime = timeTaken + requiredTimes.get(i);
-                    children.add(new State(newState, newPos, requiredTimes, newTime));
+                    visit.accept(new State(newState, newPos, requiredTimes, newTime));
                 } else if (i != j && state.get(i).equals(umbrellaPos) && state.get(j).equals(umbrellaPos)) {
                     List<String> newState = new ArrayList<>(state);
                     newState.set(i, newPos);
                     newState.set(j, newPos);
                     int newTime = timeTaken + Math.max(requiredTimes.get(i), requiredTimes.get(j));
-                    children.add(new State(newState, newPos, requiredTimes, newTime));
+                    visit.accept(new State(newState, newPos, requiredTimes, newTime));
                 }
             }
         }
-
-        return children;
     }
 
     @Override
@@ -61,18 +66,62 @@ class State {
 
 public class RiverBridge {
 
+    private static SearchListener listener;
+    private static SearchStats stats;
+
+    // Listener told when each search finishes, or null for none
+    public static void setListener(SearchListener searchListener) {
+        listener = searchListener;
+    }
+
+    // What the last BFS or DFS did
+    public static SearchStats stats() {
+        return stats;
+    }
+
+    private static void finish(int pathLength) {
+        stats.finish(pathLength);
+        if (listener != null) listener.finished(stats);
+    }
+
     public static void printPath(List<State> path) {
         for (int i = 0; i < path.size(); i++) {
             System.out.println(i + " * " + path.get(i));
         }
     }
 
-    public static List<State> constructPath(State goal, Map<State, State> parentMap) {
+    // The search tree is keyed on states packed into a long, bit i set when person i is on W and
+    // bit n when the umbrella is. Each key maps to the time it was reached in the high half and
+    // its parent's key (NO_PARENT at the start) in the low half, so a state costs one slot of a
+    // LongLongHashMap, and the path is rebuilt from keys rather than a HashMap<State, State>.
+    private static final int NO_PARENT = -1;
+
+    static long pack(State s) {
+        long key = 0;
+        for (int i = 0; i < s.state.size(); i++) {
+            if (s.state.get(i).equals("W")) key |= 1L << i;
+        }
+        if (s.umbrellaPos.equals("W")) key |= 1L << s.state.size();
+        return key;
+    }
+
+    static State unpack(long key, int time, List<Integer> requiredTimes) {
+        int n = requiredTimes.size();
+        List<String> state = new ArrayList<>();
+        for (int i = 0; i < n; i++) state.add((key & (1L << i)) != 0 ? "W" : "E");
+        return new State(state, (key & (1L << n)) != 0 ? "W" : "E", requiredTimes, time);
+    }
+
+    private static long link(int time, long parent) {
+        return ((long) time << 32) | (parent & 0xFFFFFFFFL);
+    }
+
+    public static List<State> constructPath(State goal, LongLongHashMap tree) {
         List<State> path = new ArrayList<>();
-        State current = goal;
-        while (current != null) {
-            path.add(current);
-            current = parentMap.get(current);
+        for (long key = pack(goal); key != NO_PARENT; ) {
+            long link = tree.get(key, 0);
+            path.add(unpack(key, (int) (link >>> 32), goal.requiredTimes));
+            key = (int) link;
         }
         Collections.reverse(path);
         return path;
@@ -80,34 +129,47 @@ public class RiverBridge {
 
     public static void BFS(State start) {
         Queue<State> queue = new LinkedList<>();
-        Map<State, State> parentMap = new HashMap<>();
-        Set<State> visited = new HashSet<>();
+        LongLongHashMap tree = new LongLongHashMap();   // every state ever queued
+
+        stats = new SearchStats("BFS");
 
         queue.add(start);
-        parentMap.put(start, null);
+        tree.put(pack(start), link(start.timeTaken, NO_PARENT));
 
         while (!queue.isEmpty()) {
             State current = queue.poll();
 
             if (current.goalTest() && current.timeTaken <= 60) {
-                printPath(constructPath(current, parentMap));
+                List<State> path = constructPath(current, tree);
+                printPath(path);
+                finish(path.size());
                 return;
             }
 
-            visited.add(current);
-
-            for (State child : current.moveGen()) {
-                if (!visited.contains(child) && !parentMap.containsKey(child) && child.timeTaken <= 60) {
+            // a state is queued once, so every state expanded is a new one
+            stats.expanded++;
+            stats.closed(stats.expanded);
+
+            long parent = pack(current);
+            current.forEachChild(child -> {
+                stats.generated++;
+                long key = pack(child);
+                if (tree.containsKey(key)) {
+                    stats.duplicates++;
+                } else if (child.timeTaken <= 60) {
                     queue.add(child);
-                    parentMap.put(child, current);
+                    tree.put(key, link(child.timeTaken, parent));
                 }
-            }
+            });
+            stats.frontier(queue.size());
         }
+        finish(0);
     }
 
     public static void DFS(State start) {
         Stack<List<State>> stack = new Stack<>();
         stack.push(Arrays.asList(start));
+        stats = new SearchStats("DFS");
 
         while (!stack.isEmpty()) {
             List<State> path = stack.pop();
@@ -115,17 +177,27 @@ public class RiverBridge {
 
             if (current.goalTest() && current.timeTaken <= 60) {
                 printPath(path);
+                finish(path.size());
                 return;
             }
 
-            for (State child : current.moveGen()) {
-                if (!path.contains(child) && child.timeTaken <= 60) {
+            // there is no closed set: a state is only checked against the path that led to it
+            stats.expanded++;
+            stats.closed(path.size());
+
+            current.forEachChild(child -> {
+                stats.generated++;
+                if (path.contains(child)) {
+                    stats.duplicates++;
+                } else if (child.timeTaken <= 60) {
                     List<State> newPath = new ArrayList<>(path);
                     newPath.add(child);
                     stack.push(newPath);
                 }
-            }
+            });
+            stats.frontier(stack.size());
         }
+        finish(0);
     }
 
 
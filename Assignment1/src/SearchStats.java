@@ -0,0 +1,59 @@
+// What one search did: nodes generated and expanded, children dropped because they were
+// already known, closed nodes reopened by a cheaper path, the largest frontier and closed
+// set held at once, and the wall time. An engine starts a fresh SearchStats per search and
+// counts into its fields as it goes, so keeping them costs a few increments per node.
+class SearchStats {
+    final String algorithm;
+    long generated;
+    long expanded;
+    long duplicates;
+    long reopened;
+    long peakFrontier;
+    long peakClosed;
+    long nanos;
+    int pathLength;            // states on the path returned, 0 if there was none
+
+    SearchStats(String algorithm) {
+        this.algorithm = algorithm;
+        this.nanos = System.nanoTime();
+    }
+
+    void frontier(long size) {
+        if (size > peakFrontier) peakFrontier = size;
+    }
+
+    void closed(long size) {
+        if (size > peakClosed) peakClosed = size;
+    }
+
+    // Stops the clock; called once, when the search returns
+    SearchStats finish(int pathLength) {
+        this.pathLength = pathLength;
+        this.nanos = System.nanoTime() - nanos;
+        return this;
+    }
+
+    public double millis() {
+        return nanos / 1e6;
+    }
+
+    // One JSON object without line breaks, for appending to a JSON lines file
+    public String toJson() {
+        return "{\"algorithm\":\"" + algorithm + "\""
+                + ",\"generated\":" + generated
+                + ",\"expanded\":" + expanded
+                + ",\"duplicates\":" + duplicates
+                + ",\"reopened\":" + reopened
+                + ",\"peakFrontier\":" + peakFrontier
+                + ",\"peakClosed\":" + peakClosed
+                + ",\"pathLength\":" + pathLength
+                + ",\"nanos\":" + nanos + "}";
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + ": " + expanded + " expanded, " + generated + " generated, "
+                + duplicates + " duplicates, " + reopened + " reopened, peak frontier " + peakFrontier
+                + ", peak closed " + peakClosed + ", path " + pathLength + ", " + String.format("%.3f ms", millis());
+    }
+}
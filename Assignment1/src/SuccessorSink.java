@@ -0,0 +1,5 @@
+// Receives the children of a packed state one at a time, with the cost of the move to each
+@FunctionalInterface
+interface SuccessorSink {
+    void accept(long child, long cost);
+}
@@ -1,4 +1,6 @@
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 class State {
     private int row;
@@ -17,24 +19,29 @@ class State {
         return row == n - 1 && col == n - 1;
     }
 
-    public List<State> moveGen() {
-        int[][] directions = {
-            {-1, -1}, {-1, 0}, {-1, 1},
-            { 0, -1},          { 0, 1},
-            { 1, -1}, { 1, 0}, { 1, 1}
-        };
+    private static final int[][] DIRECTIONS = {
+        {-1, -1}, {-1, 0}, {-1, 1},
+        { 0, -1},          { 0, 1},
+        { 1, -1}, { 1, 0}, { 1, 1}
+    };
 
+    public List<State> moveGen() {
         List<State> children = new ArrayList<>();
-        for (int[] dir : directions) {
+        forEachChild(children::add);
+        return children;
+    }
+
+    // moveGen without the list: each child goes straight to visit, in the same order
+    public void forEachChild(Consumer<State> visit) {
+        for (int[] dir : DIRECTIONS) {
             int newRow = row + dir[0];
             int newCol = col + dir[1];
             if (newRow >= 0 && newRow < n && newCol >= 0 && newCol < n) {
                 if (grid[newRow][newCol] == 0) {
-                    children.add(new State(newRow, newCol, grid));
+                    visit.accept(new State(newRow, newCol, grid));
                 }
             }
         }
-        return children;
     }
 
     @Override
@@ -62,101 +69,73 @@ class State {
 
 class Search {
 
-    // h(N) = Manhattan distance from current to goal
-    public int calculateHValue(State current) {
-        int n = current.getGrid().length;
-        int goalRow = n - 1;
-        int goalCol = n - 1;
-        return Math.abs(goalRow - current.getRow()) + Math.abs(goalCol - current.getCol());
-    }
+    // Builds the h(N) used by AStarSearch for the grid being searched
+    private Function<Grid, Heuristic> heuristic = Heuristic::manhattan;
 
-    List<State> reConstructPath(State goal, Map<State, State> parentMap) {
-        List<State> path = new ArrayList<>();
-        State current = goal;
+    public void useHeuristic(Function<Grid, Heuristic> heuristic) {
+        this.heuristic = heuristic;
+        invalidateHeuristic();
+    }
 
-        while (current != null) {
-            path.add(current);
-            current = parentMap.get(current);
-        }
+    // h(N) built for the grid last searched, so tables such as the landmark distances are
+    // computed once per grid rather than once per query. The Grid is still rebuilt from the
+    // array on every call; the heuristic is only reused while the array's cells match the
+    // copy it was built from, and invalidateHeuristic() drops it outright.
+    private int[][] builtFrom;
+    private Heuristic built;
 
-        Collections.reverse(path);
-        return path;
+    public void invalidateHeuristic() {
+        builtFrom = null;
+        built = null;
     }
 
-    private void propagateImprovement(
-            State m,
-            Map<State, Integer> g,
-            Map<State, Integer> f,
-            Map<State, State> parent,
-            Set<State> closed
-    ) {
-        for (State x : m.moveGen()) {
-            int tentativeG = g.get(m) + 1; // g(M) + k(M,X)
+    private Heuristic heuristicFor(int[][] grid, Grid cells) {
+        if (built == null || !Arrays.deepEquals(grid, builtFrom)) {
+            built = heuristic.apply(cells);
+            builtFrom = new int[grid.length][];
+            for (int r = 0; r < grid.length; r++) builtFrom[r] = grid[r].clone();
+        }
+        return built;
+    }
 
-            if (tentativeG < g.getOrDefault(x, Integer.MAX_VALUE)) {
-                parent.put(x, m);
-                g.put(x, tentativeG);
-                f.put(x, tentativeG + calculateHValue(x));
+    // Told about every AStarSearch that follows, or null for none
+    private SearchListener listener;
 
-                if (closed.contains(x)) {
-                    propagateImprovement(x, g, f, parent, closed);
-                }
-            }
-        }
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
     }
 
+    // Runs A* on the flat Grid model towards the bottom-right corner, then maps the
+    // cell ids of the path back to States for the caller.
     public List<State> AStarSearch(State start) {
+        int n = start.getGrid().length;
+        return AStarSearch(start, new State(n - 1, n - 1, start.getGrid()));
+    }
 
-        int row = start.getRow();
-        int col = start.getCol();
+    public List<State> AStarSearch(State start, State goal) {
         int[][] grid = start.getGrid();
-        if( grid[row][col] == 1 ) return Collections.emptyList();
-
-        Map<State, Integer> g = new HashMap<>();
-        Map<State, Integer> f = new HashMap<>();
-        Map<State, State> parent = new HashMap<>();
-
-        parent.put(start, null);
-        g.put(start, 0); // g(start) = 0
-        f.put(start, g.get(start) + calculateHValue(start));
-
-        PriorityQueue<State> open = new PriorityQueue<>(
-            Comparator.comparingInt(s -> f.getOrDefault(s, Integer.MAX_VALUE))
-        );
-
-        open.add(start);
-
-        Set<State> closed = new HashSet<>();
-
-        while (!open.isEmpty()) {
-            State n = open.poll();
-            closed.add(n);
+        Grid cells = Grid.of(grid);
+        GridSearch search = new GridSearch(cells, heuristicFor(grid, cells));
+        search.setListener(listener);
+        int[] path = search.aStar(cells.cell(start.getRow(), start.getCol()), cells.cell(goal.getRow(), goal.getCol()));
+        return toStates(path, cells, grid);
+    }
 
-            if (n.goalTest()) {
-                return reConstructPath(n, parent);
-            }
+    // Same query as AStarSearch, answered by Jump Point Search on the same 8-connected grid
+    public List<State> jumpPointSearch(State start) {
+        int[][] grid = start.getGrid();
+        int n = grid.length;
+        Grid cells = Grid.of(grid);
+        int[] path = new JumpPointSearch(cells).search(cells.cell(start.getRow(), start.getCol()), cells.cell(n - 1, n - 1));
+        return toStates(path, cells, grid);
+    }
 
-            for (State m : n.moveGen()) {
-                int tentativeG = g.get(n) + 1; // g(N) + k(N,M)
-
-                if (tentativeG < g.getOrDefault(m, Integer.MAX_VALUE)) {
-                    parent.put(m, n);
-                    g.put(m, tentativeG);
-                    f.put(m, tentativeG + calculateHValue(m));
-
-                    if (open.contains(m)) {
-                        continue;
-                    }
-                    if (closed.contains(m)) {
-                        propagateImprovement(m, g, f, parent, closed);
-                    } else {
-                        open.add(m);
-                    }
-                }
-            }
+    private List<State> toStates(int[] path, Grid cells, int[][] grid) {
+        List<State> states = new ArrayList<>(path.length);
+        for (int cell : path) {
+            states.add(new State(cells.row(cell), cells.col(cell), grid));
         }
-
-        return Collections.emptyList();
+        return states;
     }
 }
 
@@ -195,6 +174,11 @@ public class AStarSearchDemo {
         }
         System.out.println();
 
+        // TestCase2 with Jump Point Search
+        List<State> jumpPath2 = search2.jumpPointSearch(start2);
+        System.out.println("JPS path for TestCase2: " + jumpPath2);
+        System.out.println();
+
         // TestCase3
         int[][] grid3 = {
             {1, 0, 0},
@@ -212,6 +196,139 @@ public class AStarSearchDemo {
         }
         System.out.println();
 
+        // TestCase4: a batch of random queries answered concurrently on one shared grid
+        Random random = new Random(42);
+        Grid map = GridGenerator.random(500, 500, 20, 42);
+        int[] starts = new int[2000];
+        int[] goals = new int[2000];
+        for (int i = 0; i < starts.length; i++) {
+            do starts[i] = random.nextInt(map.size()); while (map.isBlocked(starts[i]));
+            do goals[i] = random.nextInt(map.size()); while (map.isBlocked(goals[i]));
+        }
+        BatchSearch.Result batch = new BatchSearch(map).run(starts, goals);
+        System.out.println("TestCase4: " + batch);
+        System.out.println();
+
+        // TestCase5: 100 random queries on a maze with each heuristic
+        Grid maze = GridGenerator.maze(201, 201, 7);
+        int[] mazeStarts = new int[100];
+        int[] mazeGoals = new int[100];
+        for (int i = 0; i < mazeStarts.length; i++) {
+            do mazeStarts[i] = random.nextInt(maze.size()); while (maze.isBlocked(mazeStarts[i]));
+            do mazeGoals[i] = random.nextInt(maze.size()); while (maze.isBlocked(mazeGoals[i]));
+        }
+        Map<String, Heuristic> heuristics = new LinkedHashMap<>();
+        heuristics.put("Manhattan", Heuristic.manhattan(maze));
+        heuristics.put("Chebyshev", Heuristic.chebyshev(maze));
+        heuristics.put("Landmarks", new LandmarkHeuristic(maze, 8));
+        for (Map.Entry<String, Heuristic> entry : heuristics.entrySet()) {
+            GridSearch mazeSearch = new GridSearch(maze, entry.getValue());
+            long totalLength = 0;
+            long totalExpanded = 0;
+            for (int i = 0; i < mazeStarts.length; i++) {
+                totalLength += mazeSearch.aStar(mazeStarts[i], mazeGoals[i]).length;
+                totalExpanded += mazeSearch.expanded();
+            }
+            System.out.println("TestCase5 " + entry.getKey() + ": total path length " + totalLength
+                    + ", expanded " + totalExpanded);
+        }
+        System.out.println();
+
+        // TestCase6: the statistics of one maze query, as the JSON line a dashboard would ingest
+        GridSearch traced = new GridSearch(maze);
+        traced.setListener(SearchListener.jsonLines(System.out));
+        traced.aStar(mazeStarts[0], mazeGoals[0]);
+        System.out.println(traced.stats());
+        System.out.println();
+
+        // TestCase7: anytime A* on one long query under growing expansion budgets
+        Grid field = GridGenerator.random(1000, 1000, 30, 7);
+        int from = field.cell(0, 0);
+        int to = field.cell(999, 999);
+        field.setBlocked(from, false);
+        field.setBlocked(to, false);
+        AnytimeAStar anytime = new AnytimeAStar(field);
+        for (long budget : new long[]{1_500, 3_000, 100_000, Long.MAX_VALUE}) {
+            AnytimeAStar.Result result = anytime.search(from, to, Long.MAX_VALUE, budget);
+            System.out.println("TestCase7 budget " + (budget == Long.MAX_VALUE ? "none" : budget) + ": " + result
+                    + ", " + anytime.stats().expanded + " expanded");
+        }
+        GridSearch exact = new GridSearch(field, Heuristic.chebyshev(field));
+        System.out.println("TestCase7 A*: cost " + (exact.aStar(from, to).length - 1) + ", " + exact.expanded() + " expanded");
+        System.out.println();
+
+        // TestCase8: 1000 agents on TestCase4's map all heading for the bottom-right corner
+        int corner = map.cell(map.rows() - 1, map.cols() - 1);
+        map.setBlocked(corner, false);
+        GridSearch perAgent = new GridSearch(map, Heuristic.chebyshev(map));
+        long begin = System.nanoTime();
+        long searched = 0;
+        for (int i = 0; i < 1000; i++) searched += perAgent.aStar(starts[i], corner).length;
+        long searchMillis = (System.nanoTime() - begin) / 1_000_000;
+        FlowFieldCache fields = new FlowFieldCache(map, 64L << 20);
+        begin = System.nanoTime();
+        long followed = 0;
+        for (int i = 0; i < 1000; i++) followed += fields.get(corner).path(starts[i]).length;
+        long fieldMillis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println("TestCase8 A* per agent: total path length " + searched + " in " + searchMillis + " ms");
+        System.out.println("TestCase8 flow field: total path length " + followed + " in " + fieldMillis + " ms (" + fields + ")");
+        System.out.println();
+
+        // TestCase9: corner to corner on 2001 x 2001 maps, A* against the bit-parallel wavefront
+        Map<String, Grid> wideMaps = new LinkedHashMap<>();
+        wideMaps.put("random", GridGenerator.random(2001, 2001, 20, 9));
+        wideMaps.put("maze", GridGenerator.maze(2001, 2001, 9));
+        for (Map.Entry<String, Grid> entry : wideMaps.entrySet()) {
+            Grid wide = entry.getValue();
+            int topLeft = wide.cell(0, 0);
+            int bottomRight = wide.cell(2000, 2000);
+            wide.setBlocked(topLeft, false);
+            wide.setBlocked(bottomRight, false);
+            GridSearch wideSearch = new GridSearch(wide, Heuristic.chebyshev(wide));
+            BitWavefront wavefront = new BitWavefront(wide);
+            wideSearch.aStar(topLeft, bottomRight); // warm up, and build the free-cell mask
+            wavefront.path(topLeft, bottomRight);
+            begin = System.nanoTime();
+            int aStarLength = wideSearch.aStar(topLeft, bottomRight).length - 1;
+            long aStarMillis = (System.nanoTime() - begin) / 1_000_000;
+            begin = System.nanoTime();
+            int waveDistance = wavefront.distance(topLeft, bottomRight);
+            long distanceMillis = (System.nanoTime() - begin) / 1_000_000;
+            begin = System.nanoTime();
+            int waveLength = wavefront.path(topLeft, bottomRight).length - 1;
+            long pathMillis = (System.nanoTime() - begin) / 1_000_000;
+            System.out.println("TestCase9 " + entry.getKey() + ": A* " + aStarLength + " moves in " + aStarMillis
+                    + " ms, wavefront distance " + waveDistance + " in " + distanceMillis + " ms, path "
+                    + waveLength + " moves in " + pathMillis + " ms");
+        }
+        System.out.println();
+
+        // TestCase10: 200 queries asked five times each through a path cache, then one edit
+        GridSearch cachedSearch = new GridSearch(map, Heuristic.chebyshev(map));
+        begin = System.nanoTime();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 200; i++) {
+                cachedSearch.aStar(starts[i], goals[i]);
+                cachedSearch.bestFirst(starts[i], goals[i]);
+            }
+        }
+        long uncachedMillis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println("TestCase10: 2000 searches in " + uncachedMillis + " ms");
+        PathCache cache = new PathCache(map, 1000, 1L << 20);
+        begin = System.nanoTime();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 200; i++) {
+                cache.find(starts[i], goals[i], "aStar", cachedSearch::aStar);
+                cache.find(starts[i], goals[i], "bestFirst", cachedSearch::bestFirst);
+            }
+        }
+        long cachedMillis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println("TestCase10: 2000 lookups in " + cachedMillis + " ms (" + cache + ")");
+        int[] first = cache.find(starts[0], goals[0], "aStar", cachedSearch::aStar);
+        cache.setBlocked(first[first.length / 2], true);
+        System.out.println("TestCase10 after blocking a cell on query 0's path: " + cache);
+        System.out.println();
+
     }
 }
 
@@ -225,7 +342,34 @@ Path length: 2
 Path found for TestCase2: [(0, 0), (0, 1), (1, 2), (2, 2)]
 Path length: 4
 
+JPS path for TestCase2: [(0, 0), (0, 1), (1, 2), (2, 2)]
+
 Path found for TestCase3: []
 Path length: 0
 
+TestCase4: 2000 queries in 970 ms (2061 queries/s)
+
+TestCase5 Manhattan: total path length 186015, expanded 972027
+TestCase5 Chebyshev: total path length 186015, expanded 984724
+TestCase5 Landmarks: total path length 186015, expanded 298762
+
+{"algorithm":"aStar","generated":48095,"expanded":17881,"duplicates":30197,"reopened":0,"peakFrontier":23,"peakClosed":17882,"pathLength":4117,"nanos":10296526}
+aStar: 17881 expanded, 48095 generated, 30197 duplicates, 0 reopened, peak frontier 23, peak closed 17882, path 4117, 10.297 ms
+
+TestCase7 budget 1500: cost 1248, within 1.25 of optimal (w = 3.0, pass 1), 1500 expanded
+TestCase7 budget 3000: cost 1215, within 1.22 of optimal (w = 1.25, pass 2), 3000 expanded
+TestCase7 budget 100000: cost 1215, within 1.22 of optimal (w = 1.25, pass 2), 100000 expanded
+TestCase7 budget none: cost 1110, within 1.0 of optimal (w = 1.0, pass 3), 102181 expanded
+TestCase7 A*: cost 1110, 98580 expanded
+
+TestCase8 A* per agent: total path length 339363 in 2725 ms
+TestCase8 flow field: total path length 339363 in 69 ms (1 fields, 1250000 bytes, 999 hits, 1 misses, 0 evicted)
+
+TestCase9 random: A* 2132 moves in 70 ms, wavefront distance 2132 in 38 ms, path 2132 moves in 25 ms
+TestCase9 maze: A* 216355 moves in 199 ms, wavefront distance 216355 in 57 ms, path 216355 moves in 72 ms
+
+TestCase10: 2000 searches in 1421 ms
+TestCase10: 2000 lookups in 326 ms (400 paths, 126661 bytes, 1600 hits, 400 misses, 0 evicted, 0 invalidated)
+TestCase10 after blocking a cell on query 0's path: 398 paths, 125928 bytes, 1601 hits, 400 misses, 0 evicted, 2 invalidated
+
 */
\ No newline at end of file
@@ -0,0 +1,239 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Anytime Repairing A* (ARA*, Likhachev, Gordon & Thrun) on the Grid. The first pass is
+// weighted A* with f = g + w * h for a large w, which finds a path after few expansions.
+// Each later pass lowers w and repairs the previous search instead of starting over: g and
+// parent are kept, a cell is expanded at most once per pass, and a closed cell whose g
+// drops waits in INCONS until the next pass puts it back on the open list. Every pass that
+// completes publishes its path with a proven bound: cost <= bound * optimal cost, where
+// bound = min(w, g(goal) / min{g + h over OPEN and INCONS}).
+//
+// The search stops at the caller's deadline or expansion budget and returns the last
+// published path, so the budget only decides how close to optimal the answer is.
+// Weights and bounds are fixed point, SCALE meaning 1.0, so keys stay exact longs.
+// The heuristic must be consistent for the bound to hold; Chebyshev is the default.
+class AnytimeAStar {
+    static final int INF = GridSearch.INF;
+    static final int SCALE = 100;
+
+    static class Result {
+        final int[] path;        // empty if no pass completed or the goal is unreachable
+        final int cost;          // moves on path, INF if there is none
+        final int bound;         // cost <= bound * optimal / SCALE; INF without a path
+        final int weight;        // w of the pass that produced path
+        final int passes;        // passes completed
+
+        Result(int[] path, int cost, int bound, int weight, int passes) {
+            this.path = path;
+            this.cost = cost;
+            this.bound = bound;
+            this.weight = weight;
+            this.passes = passes;
+        }
+
+        public boolean optimal() {
+            return bound == SCALE;
+        }
+
+        @Override
+        public String toString() {
+            if (path.length == 0) return "no path after pass " + passes;
+            return "cost " + cost + ", within " + bound / (double) SCALE + " of optimal (w = "
+                    + weight / (double) SCALE + ", pass " + passes + ")";
+        }
+    }
+
+    private final Grid grid;
+    private final Heuristic estimator;
+    private final int[] g;
+    private final CellTree parents;
+    private final int[] closedIn;   // pass in which a cell was last expanded, 0 if never
+    private final BitSet inIncons;
+    private final IndexedMinHeap open;
+    private final int[] successors = new int[8];
+    private int[] incons = new int[64];
+    private int inconsCount;
+    private int[] pending = new int[64];
+    private int[] touched = new int[64];
+    private int touchedCount;
+    private int initialWeight = 3 * SCALE;
+    private int weightStep = SCALE / 2;
+    private int pass;
+    private int closedCount;        // cells expanded in this pass
+    private int weight;
+    private int goal;
+    private long deadline;
+    private long maxExpansions;
+    private SearchStats stats;
+    private SearchListener listener;
+
+    public AnytimeAStar(Grid grid) {
+        this(grid, Heuristic.chebyshev(grid));
+    }
+
+    public AnytimeAStar(Grid grid, Heuristic estimator) {
+        this.grid = grid;
+        this.estimator = estimator;
+        this.g = new int[grid.size()];
+        this.parents = new CellTree(grid);
+        this.closedIn = new int[grid.size()];
+        this.inIncons = new BitSet(grid.size());
+        this.open = new IndexedMinHeap(grid.size());
+        Arrays.fill(g, INF);
+    }
+
+    // First weight and the amount each pass lowers it by, both fixed point
+    public void setWeights(int initialWeight, int weightStep) {
+        if (initialWeight < SCALE || weightStep <= 0) {
+            throw new IllegalArgumentException("weights " + initialWeight + " - " + weightStep + " per pass");
+        }
+        this.initialWeight = initialWeight;
+        this.weightStep = weightStep;
+    }
+
+    // What the last search did, over all its passes
+    public SearchStats stats() {
+        return stats;
+    }
+
+    // Listener for the searches that follow, or null for none
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    // Runs passes until one is optimal, System.nanoTime() passes deadlineNanos, or
+    // maxExpansions nodes have been expanded, and returns the best path published
+    public Result search(int start, int goal, long deadlineNanos, long maxExpansions) {
+        reset();
+        this.goal = goal;
+        this.deadline = deadlineNanos;
+        this.maxExpansions = maxExpansions;
+        Result best = new Result(new int[0], INF, INF, 0, 0);
+        if (grid.isBlocked(start) || grid.isBlocked(goal)) return finish(best);
+
+        weight = initialWeight;
+        g[start] = 0;
+        parents.setRoot(start);
+        touch(start);
+        open.add(start, key(start));
+
+        while (true) {
+            pass++;
+            if (!improvePath()) return finish(best);
+
+            // drain OPEN and INCONS: their least g + h is the lower bound for this pass,
+            // and they are the cells the next pass starts from
+            int count = drain();
+            long lowest = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) lowest = Math.min(lowest, (long) g[pending[i]] + heuristic(pending[i]));
+            if (g[goal] == INF) return finish(new Result(new int[0], INF, INF, weight, pass));
+
+            // lowest <= optimal cost <= cost. The parent chain can be shorter than g(goal) when
+            // a cell on it got a lower g that is still waiting in INCONS, so measure the path.
+            // An empty OPEN or lowest 0 means start == goal.
+            int[] path = parents.path(goal);
+            int cost = path.length - 1;
+            int bound = SCALE;
+            if (lowest != Long.MAX_VALUE && lowest > 0) bound = (int) Math.min(weight, ceilDiv((long) cost * SCALE, lowest));
+            best = new Result(path, cost, bound, weight, pass);
+            if (bound <= SCALE) return finish(best);
+
+            weight = Math.max(SCALE, Math.min(weight - weightStep, bound));
+            for (int i = 0; i < count; i++) open.add(pending[i], key(pending[i]));
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            g[touched[i]] = INF;
+            closedIn[touched[i]] = 0;
+        }
+        touchedCount = 0;
+        for (int i = 0; i < inconsCount; i++) inIncons.clear(incons[i]);
+        inconsCount = 0;
+        pass = 0;
+        open.clear();
+        stats = new SearchStats("araStar");
+    }
+
+    private void touch(int cell) {
+        if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+        touched[touchedCount++] = cell;
+    }
+
+    private int heuristic(int cell) {
+        return estimator.estimate(cell, goal);
+    }
+
+    // g * SCALE + w * h: f = g + w * h scaled to stay an integer
+    private long key(int cell) {
+        return (long) g[cell] * SCALE + (long) weight * heuristic(cell);
+    }
+
+    // One pass of weighted A*; false if the budget ran out before it finished
+    private boolean improvePath() {
+        closedCount = 0;
+        while (!open.isEmpty() && (long) g[goal] * SCALE > open.peekKey()) {
+            if (stats.expanded >= maxExpansions) return false;
+            if ((stats.expanded & 255) == 0 && System.nanoTime() - deadline > 0) return false;
+
+            int n = open.poll();
+            closedIn[n] = pass;
+            stats.closed(++closedCount);
+            stats.expanded++;
+            if (listener != null) listener.expanded(n, g[n]);
+
+            int tentativeG = g[n] + 1;
+            int count = grid.neighbours(n, successors);
+            stats.generated += count;
+            for (int i = 0; i < count; i++) {
+                int m = successors[i];
+                if (tentativeG >= g[m]) {
+                    stats.duplicates++;
+                    continue;
+                }
+                if (g[m] == INF) touch(m);
+                g[m] = tentativeG;
+                parents.link(m, n);
+                if (closedIn[m] != pass) {
+                    open.update(m, key(m));
+                } else {
+                    // closed in this pass: it waits for the next one, once, in INCONS
+                    stats.reopened++;
+                    if (!inIncons.get(m)) {
+                        if (inconsCount == incons.length) incons = Arrays.copyOf(incons, inconsCount * 2);
+                        incons[inconsCount++] = m;
+                        inIncons.set(m);
+                    }
+                }
+            }
+            stats.frontier(open.size() + inconsCount);
+        }
+        return true;
+    }
+
+    // Empties OPEN and INCONS into pending and returns how many cells it holds
+    private int drain() {
+        int count = open.size() + inconsCount;
+        if (pending.length < count) pending = new int[Math.max(count, pending.length * 2)];
+        int size = 0;
+        while (!open.isEmpty()) pending[size++] = open.poll();
+        for (int i = 0; i < inconsCount; i++) {
+            pending[size++] = incons[i];
+            inIncons.clear(incons[i]);
+        }
+        inconsCount = 0;
+        return size;
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return (a + b - 1) / b;
+    }
+
+    private Result finish(Result result) {
+        stats.finish(result.path.length);
+        if (listener != null) listener.finished(stats);
+        return result;
+    }
+}
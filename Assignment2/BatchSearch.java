@@ -0,0 +1,87 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Answers batches of start/goal queries concurrently on one shared Grid. The grid is only
+// read, so it must not be edited while a batch runs. A batch runs one task per worker of
+// the pool, each handed its own GridSearch from this instance and taking queries from a
+// shared counter; the engines' arrays are reused from query to query and batch to batch,
+// and go away with the instance rather than staying behind on the pool's threads.
+class BatchSearch {
+
+    static class Result {
+        final int[][] paths;     // paths[i] answers query i; empty if its goal is unreachable
+        final long elapsedNanos;
+
+        Result(int[][] paths, long elapsedNanos) {
+            this.paths = paths;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double queriesPerSecond() {
+            return paths.length * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return paths.length + " queries in " + elapsedNanos / 1_000_000 + " ms ("
+                    + Math.round(queriesPerSecond()) + " queries/s)";
+        }
+    }
+
+    private final Grid grid;
+    private final ForkJoinPool pool;
+    private final Heuristic heuristic;
+    private final GridSearch[] engines;   // one per task, built on first use
+
+    public BatchSearch(Grid grid) {
+        this(grid, ForkJoinPool.commonPool(), Heuristic.chebyshev(grid));
+    }
+
+    // The heuristic is shared by every task, so it must be safe to read concurrently
+    public BatchSearch(Grid grid, ForkJoinPool pool, Heuristic heuristic) {
+        this.grid = grid;
+        this.pool = pool;
+        this.heuristic = heuristic;
+        this.engines = new GridSearch[pool.getParallelism()];
+    }
+
+    // Runs A* for every (starts[i], goals[i]) pair and returns the paths in query order.
+    // Batches on one instance run one at a time, since they share its engines.
+    public synchronized Result run(int[] starts, int[] goals) {
+        if (starts.length != goals.length) {
+            throw new IllegalArgumentException(starts.length + " starts but " + goals.length + " goals");
+        }
+        int[][] paths = new int[starts.length][];
+        AtomicInteger next = new AtomicInteger();
+        long begin = System.nanoTime();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        try {
+            for (int t = 0; t < Math.min(engines.length, starts.length); t++) {
+                if (engines[t] == null) engines[t] = new GridSearch(grid, heuristic);
+                GridSearch search = engines[t];
+                tasks.add(pool.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < starts.length; i = next.getAndIncrement()) {
+                        paths[i] = search.aStar(starts[i], goals[i]);
+                    }
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("batch interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("batch query failed", e.getCause());
+        } finally {
+            for (ForkJoinTask<?> task : tasks) task.quietlyJoin();   // no task still holds an engine
+        }
+        return new Result(paths, System.nanoTime() - begin);
+    }
+
+    public Grid grid() {
+        return grid;
+    }
+}
@@ -1,5 +1,5 @@
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 class State {
     private int row;
@@ -18,24 +18,29 @@ class State {
         return row == n - 1 && col == n - 1;
     }
 
-    public List<State> moveGen() {
-        int[][] directions = {
-            {-1, -1}, {-1, 0}, {-1, 1},
-            { 0, -1},          { 0, 1},
-            { 1, -1}, { 1, 0}, { 1, 1}
-        };
+    private static final int[][] DIRECTIONS = {
+        {-1, -1}, {-1, 0}, {-1, 1},
+        { 0, -1},          { 0, 1},
+        { 1, -1}, { 1, 0}, { 1, 1}
+    };
 
+    public List<State> moveGen() {
         List<State> children = new ArrayList<>();
-        for (int[] dir : directions) {
+        forEachChild(children::add);
+        return children;
+    }
+
+    // moveGen without the list: each child goes straight to visit, in the same order
+    public void forEachChild(Consumer<State> visit) {
+        for (int[] dir : DIRECTIONS) {
             int newRow = row + dir[0];
             int newCol = col + dir[1];
             if (newRow >= 0 && newRow < n && newCol >= 0 && newCol < n) {
                 if (grid[newRow][newCol] == 0) {
-                    children.add(new State(newRow, newCol, grid));
+                    visit.accept(new State(newRow, newCol, grid));
                 }
             }
         }
-        return children;
     }
 
     @Override
@@ -61,101 +66,30 @@ class State {
     public int[][] getGrid() { return grid; }
 }
 
-class NodeParentHeuristic{
-    State node;
-    State parent;
-    int heuristicValue;
-    public NodeParentHeuristic( State node , State parent , int heuristicValue ){
-        this.node = node;
-        this.parent = parent;
-        this.heuristicValue = heuristicValue;
-    }
-}
-
 class Search{
-    List<State> removeSeen( List<State> children , PriorityQueue<NodeParentHeuristic> open , Map<NodeParentHeuristic,Boolean> vis ){
-        List<State> newChildren = new ArrayList<>();
-        
-        Set<State> openStates = open.stream()
-                            .map(nph -> nph.node)   
-                            .collect(Collectors.toSet()); 
-        
-        Set<State> visStates = vis.keySet().stream().map( closed -> closed.node ).collect( Collectors.toSet() );
-
-        for( State child : children ){
-            if( !openStates.contains(child) && !visStates.contains(child) )
-                newChildren.add(child);
-        }
-
-        return newChildren;
-
-    }
-
-    public int calculateHValue(State child) {
-        int row = child.getRow();
-        int col = child.getCol();
-        int n = child.getGrid().length;
-
-        int goalRow = n - 1;
-        int goalCol = n - 1;
 
-        return Math.abs(goalRow - row) + Math.abs(goalCol - col);
-    }
-
-    List<State> reConstructPath( NodeParentHeuristic nodeTriple , Map<NodeParentHeuristic,Boolean> vis ){
-        List<State> path = new ArrayList<>();
-        State current = nodeTriple.parent;
-
-        Map<State,State> parentMap = new HashMap<>();
-        for( NodeParentHeuristic nph : vis.keySet() ){
-            if( vis.get(nph) ) parentMap.put( nph.node , nph.parent );
-        }
-
-        path.add( nodeTriple.node );
-
-        while (current != null) {
-            path.add(current); 
-            current = parentMap.get(current);
-        }
-
-        Collections.reverse(path);
+    // Told about every bestFirstSearch that follows, or null for none
+    private SearchListener listener;
 
-        return path;
+    public void setListener( SearchListener listener ){
+        this.listener = listener;
     }
 
+    // Runs greedy best-first on the flat Grid model towards the bottom-right corner,
+    // then maps the cell ids of the path back to States for the caller.
     public List<State> bestFirstSearch( State start ){
-
-        int row = start.getRow();
-        int col = start.getCol();
         int[][] grid = start.getGrid();
-        if( grid[row][col] == 1 ) return Collections.emptyList();
-
-        PriorityQueue<NodeParentHeuristic> open = new PriorityQueue<>( ( a , b ) -> a.heuristicValue - b.heuristicValue );
-        Map<NodeParentHeuristic,Boolean> vis = new HashMap<>();
-        open.add( new NodeParentHeuristic(start , null , calculateHValue(start)) );
-
-        while( !open.isEmpty() ){
-
-            NodeParentHeuristic nodeTriple = open.poll();
-            State node = nodeTriple.node;
-            
-            if( node.goalTest() ){
-                return reConstructPath(nodeTriple,vis);
-            }
-            
-            vis.put( nodeTriple , true );
-            List<State> children = node.moveGen();
-            List<State> newNodes = removeSeen( children,open,vis );
-            List<NodeParentHeuristic> newTriples = new ArrayList<>();
-            for( State child : newNodes ){
-                int hValCalc = calculateHValue( child );
-                newTriples.add( new NodeParentHeuristic( child, node, hValCalc ) );
-            }
-            open.addAll(newTriples);
-            
+        int n = grid.length;
+        Grid cells = Grid.of(grid);
+        GridSearch search = new GridSearch(cells);
+        search.setListener(listener);
+        int[] path = search.bestFirst( cells.cell(start.getRow(), start.getCol()) , cells.cell(n - 1, n - 1) );
+
+        List<State> states = new ArrayList<>(path.length);
+        for( int cell : path ){
+            states.add( new State( cells.row(cell) , cells.col(cell) , grid ) );
         }
-
-        return Collections.emptyList();
+        return states;
     }
 }
 
@@ -203,6 +137,7 @@ public class BestFirstSearch {
         }
         System.out.println();
 
+
         //TestCase3
         int[][] grid3 = {
             {1, 0, 0},
@@ -0,0 +1,231 @@
+import java.util.Arrays;
+
+// Breadth-first distance on the Grid, one whole wave at a time. The free cells, the cells
+// reached and the current frontier are bitsets, and the next wave is computed 64 cells at
+// a time: spread the frontier one column left and right, then one row up and down, and
+// mask with the free cells not yet reached. Every move costs 1 in all eight directions,
+// so wave k holds exactly the cells k moves from the start.
+//
+// Each long holds an 8 x 8 block of cells (bit 8 * row + col inside the block) rather
+// than 64 cells of one row: a wave is as often a column as a row, and with row words a
+// column would cost a whole word per cell. Only the blocks holding frontier, and the
+// blocks next to them, are touched, so a wave costs about its length / 8 in word
+// operations where a queue BFS handles its cells one by one with eight neighbour checks.
+class BitWavefront {
+    static final int INF = GridSearch.INF;
+
+    private static final long COL0 = 0x0101010101010101L;  // column 0 of every block row
+    private static final long COL7 = 0x8080808080808080L;
+    private static final long ROW0 = 0x00000000000000FFL;
+    private static final long ROW7 = 0xFF00000000000000L;
+
+    private final Grid grid;
+    private final int rows;
+    private final int cols;
+    private final int blockCols;
+    private final int blockRows;
+    private final long[] free;      // cells past the last row or column stay 0
+    private final long[] visited;
+    private long[] frontier;
+    private long[] next;
+    private final long[] spread;    // frontier spread left and right, before going up and down
+    private int[] active;           // blocks holding frontier
+    private int activeCount;
+    private int[] nextActive;
+    private final int[] spreadList;
+    private final int[] candidates;
+    private final int[] spreadStamp;
+    private final int[] candidateStamp;
+    private int stamp;
+    private int[] dist;             // wave of every reached cell, only filled for path()
+    private long version = -1;
+    private int waves;
+
+    public BitWavefront(Grid grid) {
+        this.grid = grid;
+        this.rows = grid.rows();
+        this.cols = grid.cols();
+        this.blockCols = (cols + 7) >>> 3;
+        this.blockRows = (rows + 7) >>> 3;
+        int blocks = blockCols * blockRows;
+        this.free = new long[blocks];
+        this.visited = new long[blocks];
+        this.frontier = new long[blocks];
+        this.next = new long[blocks];
+        this.spread = new long[blocks];
+        this.active = new int[blocks];
+        this.nextActive = new int[blocks];
+        this.spreadList = new int[blocks];
+        this.candidates = new int[blocks];
+        this.spreadStamp = new int[blocks];
+        this.candidateStamp = new int[blocks];
+    }
+
+    // Waves run by the last query
+    public int waves() {
+        return waves;
+    }
+
+    private int block(int cell) {
+        int r = cell / cols;
+        int c = cell - r * cols;
+        return (r >>> 3) * blockCols + (c >>> 3);
+    }
+
+    private static long bit(int cell, int cols) {
+        int r = cell / cols;
+        int c = cell - r * cols;
+        return 1L << (((r & 7) << 3) | (c & 7));
+    }
+
+    // Rebuilds the free-cell mask when the grid has changed since the last query
+    private void refresh() {
+        if (version == grid.version()) return;
+        Arrays.fill(free, 0);
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (!grid.isBlocked(cell)) free[block(cell)] |= bit(cell, cols);
+        }
+        version = grid.version();
+    }
+
+    public boolean reachable(int start, int goal) {
+        return distance(start, goal) != INF;
+    }
+
+    // Moves on a shortest path from start to goal, INF if there is none
+    public int distance(int start, int goal) {
+        return run(start, goal, false);
+    }
+
+    // Cells of a shortest path from start to goal, or an empty array if there is none.
+    // Records the wave of every cell reached, which costs a pass over each new word's bits.
+    public int[] path(int start, int goal) {
+        int length = run(start, goal, true);
+        if (length == INF) return new int[0];
+        int[] path = new int[length + 1];
+        int cell = goal;
+        path[length] = goal;
+        for (int k = length - 1; k >= 0; k--) {
+            for (int d = 0; d < Grid.DR.length; d++) {
+                int previous = grid.step(cell, d);
+                if (previous >= 0 && (visited[block(previous)] & bit(previous, cols)) != 0 && dist[previous] == k) {
+                    cell = previous;
+                    break;
+                }
+            }
+            path[k] = cell;
+        }
+        return path;
+    }
+
+    private int run(int start, int goal, boolean record) {
+        refresh();
+        waves = 0;
+        if (grid.isBlocked(start) || grid.isBlocked(goal)) return INF;
+        if (start == goal) return 0;
+        Arrays.fill(visited, 0);
+        if (record && dist == null) dist = new int[grid.size()];
+
+        int first = block(start);
+        frontier[first] = bit(start, cols);
+        visited[first] = frontier[first];
+        active[0] = first;
+        activeCount = 1;
+        if (record) dist[start] = 0;
+
+        int goalBlock = block(goal);
+        long goalBit = bit(goal, cols);
+        try {
+            while (activeCount > 0) {
+                waves++;
+                expand(record);
+                if ((visited[goalBlock] & goalBit) != 0) return waves;
+            }
+            return INF;
+        } finally {
+            for (int i = 0; i < activeCount; i++) frontier[active[i]] = 0;
+            activeCount = 0;
+        }
+    }
+
+    // Turns frontier into the next wave
+    private void expand(boolean record) {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(spreadStamp, 0);
+            Arrays.fill(candidateStamp, 0);
+            stamp = 0;
+        }
+        stamp++;
+
+        // left and right, inside each block and across into the blocks beside it
+        int spreadCount = 0;
+        for (int i = 0; i < activeCount; i++) {
+            int b = active[i];
+            long f = frontier[b];
+            spreadCount = addSpread(b, f | ((f << 1) & ~COL0) | ((f >>> 1) & ~COL7), spreadCount);
+            int blockCol = b % blockCols;
+            if (blockCol > 0 && (f & COL0) != 0) spreadCount = addSpread(b - 1, (f & COL0) << 7, spreadCount);
+            if (blockCol < blockCols - 1 && (f & COL7) != 0) spreadCount = addSpread(b + 1, (f & COL7) >>> 7, spreadCount);
+            frontier[b] = 0;
+        }
+
+        // up and down, inside each block and across into the blocks above and below
+        int count = 0;
+        for (int i = 0; i < spreadCount; i++) {
+            int b = spreadList[i];
+            long s = spread[b];
+            spread[b] = 0;
+            count = addCandidate(b, s | (s << 8) | (s >>> 8), count);
+            int blockRow = b / blockCols;
+            if (blockRow > 0 && (s & ROW0) != 0) count = addCandidate(b - blockCols, (s & ROW0) << 56, count);
+            if (blockRow < blockRows - 1 && (s & ROW7) != 0) count = addCandidate(b + blockCols, (s & ROW7) >>> 56, count);
+        }
+
+        int nextCount = 0;
+        for (int i = 0; i < count; i++) {
+            int b = candidates[i];
+            long fresh = next[b] & free[b] & ~visited[b];
+            next[b] = fresh;
+            if (fresh == 0) continue;
+            visited[b] |= fresh;
+            nextActive[nextCount++] = b;
+            if (record) recordWave(b, fresh);
+        }
+
+        long[] spent = frontier;
+        frontier = next;
+        next = spent;
+        int[] swap = active;
+        active = nextActive;
+        nextActive = swap;
+        activeCount = nextCount;
+    }
+
+    private int addSpread(int b, long bits, int count) {
+        if (spreadStamp[b] != stamp) {
+            spreadStamp[b] = stamp;
+            spreadList[count++] = b;
+        }
+        spread[b] |= bits;
+        return count;
+    }
+
+    private int addCandidate(int b, long bits, int count) {
+        if (candidateStamp[b] != stamp) {
+            candidateStamp[b] = stamp;
+            candidates[count++] = b;
+        }
+        next[b] |= bits;
+        return count;
+    }
+
+    private void recordWave(int b, long fresh) {
+        int top = (b / blockCols) << 3;
+        int left = (b % blockCols) << 3;
+        while (fresh != 0) {
+            int i = Long.numberOfTrailingZeros(fresh);
+            dist[(top + (i >>> 3)) * cols + left + (i & 7)] = waves;
+            fresh &= fresh - 1;
+        }
+    }
+}
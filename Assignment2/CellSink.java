@@ -0,0 +1,5 @@
+// Receives the neighbours of a grid cell one at a time, with the cost of the move to each
+@FunctionalInterface
+interface CellSink {
+    void accept(int cell, int cost);
+}
@@ -0,0 +1,39 @@
+// Search tree over the cells of a Grid at one byte per cell: the direction (an index into
+// Grid.DR/DC) of the move that reached each cell, or ROOT where the search started. The
+// parent of a cell is one move back, so a path is replayed from its last cell instead of
+// being followed through an int[] of parent ids, and the tree costs a quarter of one.
+class CellTree {
+    static final byte ROOT = -1;
+
+    private final Grid grid;
+    private final byte[] moves;
+
+    public CellTree(Grid grid) {
+        this.grid = grid;
+        this.moves = new byte[grid.size()];
+    }
+
+    public void setRoot(int cell) {
+        moves[cell] = ROOT;
+    }
+
+    // Records that child was reached from parent, one of its neighbours
+    public void link(int child, int parent) {
+        moves[child] = (byte) grid.direction(parent, child);
+    }
+
+    // The cell child was reached from, or -1 at the root
+    public int parent(int child) {
+        byte d = moves[child];
+        return d == ROOT ? -1 : child - Grid.DR[d] * grid.cols() - Grid.DC[d];
+    }
+
+    // Cells from the root to cell, replayed backwards through the recorded moves
+    public int[] path(int cell) {
+        int length = 0;
+        for (int at = cell; at != -1; at = parent(at)) length++;
+        int[] path = new int[length];
+        for (int at = cell; at != -1; at = parent(at)) path[--length] = at;
+        return path;
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.Arrays;
+
+// D* Lite incremental planner on the Grid (Koenig & Likhachev). It searches backwards
+// from the goal, so g(s) is the distance from s to the goal, and keeps g, rhs and the
+// open list between calls. After cellsChanged only the vertices whose distance actually
+// changed are re-expanded, and moveTo lets the start follow the agent without a restart.
+// Moves cost 1 in all eight directions; an edge into or out of a blocked cell costs INF.
+class DStarLite {
+    static final int INF = GridSearch.INF;
+
+    private final Grid grid;
+    private final int goal;
+    private final int[] g;
+    private final int[] rhs;
+    private final IndexedMinHeap open;
+    private final int[] successors = new int[8];
+    private final int[] around = new int[8];
+    private int start;
+    private int last;  // start at the time of the last edge change
+    private int km;    // key modifier: sum of heuristic drops caused by moving the start
+    private int expanded;
+
+    public DStarLite(Grid grid, int start, int goal) {
+        this.grid = grid;
+        this.start = start;
+        this.last = start;
+        this.goal = goal;
+        this.g = new int[grid.size()];
+        this.rhs = new int[grid.size()];
+        this.open = new IndexedMinHeap(grid.size());
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        rhs[goal] = 0;
+        open.add(goal, key(goal));
+    }
+
+    // Vertices expanded since the planner was created
+    public int expanded() {
+        return expanded;
+    }
+
+    private int heuristic(int from, int to) {
+        return Math.max(Math.abs(grid.row(from) - grid.row(to)), Math.abs(grid.col(from) - grid.col(to)));
+    }
+
+    // [min(g, rhs) + h(start, s) + km ; min(g, rhs)] packed into one long
+    private long key(int s) {
+        int m = Math.min(g[s], rhs[s]);
+        if (m == INF) return ((long) INF << 32) | INF;
+        long k1 = Math.min((long) INF, (long) m + heuristic(start, s) + km);
+        return (k1 << 32) | m;
+    }
+
+    private void updateVertex(int u) {
+        if (u != goal) {
+            int best = INF;
+            if (!grid.isBlocked(u)) {
+                int count = grid.neighbours(u, successors);
+                for (int i = 0; i < count; i++) {
+                    int next = g[successors[i]];
+                    if (next != INF && next + 1 < best) best = next + 1;
+                }
+            }
+            rhs[u] = best;
+        }
+        if (g[u] != rhs[u]) open.update(u, key(u));
+        else open.remove(u);
+    }
+
+    private void computeShortestPath() {
+        while (!open.isEmpty() && (open.peekKey() < key(start) || rhs[start] != g[start])) {
+            int u = open.peek();
+            long oldKey = open.peekKey();
+            long newKey = key(u);
+            if (oldKey < newKey) {
+                open.update(u, newKey);
+                continue;
+            }
+            expanded++;
+            open.poll();
+            if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+            } else {
+                g[u] = INF;
+                updateVertex(u);
+            }
+            // predecessors and successors coincide on the undirected grid
+            int count = neighbours(u);
+            for (int i = 0; i < count; i++) updateVertex(around[i]);
+        }
+    }
+
+    // Every in-grid neighbour of u, blocked or not, left in around
+    private int neighbours(int u) {
+        int row = grid.row(u);
+        int col = grid.col(u);
+        int count = 0;
+        for (int d = 0; d < Grid.DR.length; d++) {
+            int r = row + Grid.DR[d];
+            int c = col + Grid.DC[d];
+            if (r >= 0 && r < grid.rows() && c >= 0 && c < grid.cols()) around[count++] = grid.cell(r, c);
+        }
+        return count;
+    }
+
+    // Moves the start, e.g. after the agent took a step along the last plan
+    public void moveTo(int cell) {
+        start = cell;
+    }
+
+    // Repairs the search after the given cells were blocked or freed in the grid
+    public void cellsChanged(int... cells) {
+        km += heuristic(last, start);
+        last = start;
+        for (int cell : cells) {
+            updateVertex(cell);
+            int count = neighbours(cell);
+            for (int i = 0; i < count; i++) updateVertex(around[i]);
+        }
+    }
+
+    // Current shortest path from start to goal, or an empty array if there is none
+    public int[] plan() {
+        if (grid.isBlocked(start) || grid.isBlocked(goal)) return new int[0];
+        computeShortestPath();
+        if (g[start] == INF) return new int[0];
+
+        int[] path = new int[g[start] + 1];
+        int cell = start;
+        path[0] = cell;
+        for (int i = 1; i < path.length; i++) {
+            int count = grid.neighbours(cell, successors);
+            int best = -1;
+            for (int j = 0; j < count; j++) {
+                if (best == -1 || g[successors[j]] < g[best]) best = successors[j];
+            }
+            cell = best;
+            path[i] = cell;
+        }
+        return path;
+    }
+}
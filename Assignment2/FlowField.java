@@ -0,0 +1,87 @@
+import java.util.Arrays;
+
+// Distance and next move towards one goal for every cell of a Grid, from a single
+// breadth-first search run backwards from the goal (every move costs 1, and a move is
+// possible exactly when its reverse is). Any number of agents heading for that goal then
+// read their path off the field in O(path length) with no search of their own.
+// A field costs 5 bytes per cell: an int distance and a byte direction into Grid.DR/DC.
+class FlowField {
+    static final int INF = GridSearch.INF;
+    static final byte NONE = -1;   // direction of the goal itself and of unreachable cells
+
+    private final Grid grid;
+    private final int goal;
+    private final long version;
+    private final int[] dist;
+    private final byte[] dirs;
+
+    public FlowField(Grid grid, int goal) {
+        this.grid = grid;
+        this.goal = goal;
+        this.version = grid.version();
+        this.dist = new int[grid.size()];
+        this.dirs = new byte[grid.size()];
+        Arrays.fill(dist, INF);
+        Arrays.fill(dirs, NONE);
+        if (!grid.isBlocked(goal)) build();
+    }
+
+    private void build() {
+        int[] queue = new int[grid.size()];
+        int head = 0;
+        int tail = 0;
+        dist[goal] = 0;
+        queue[tail++] = goal;
+        while (head < tail) {
+            int cell = queue[head++];
+            int next = dist[cell] + 1;
+            for (int d = 0; d < Grid.DR.length; d++) {
+                int from = grid.step(cell, d);
+                if (from < 0 || dist[from] != INF) continue;
+                dist[from] = next;
+                dirs[from] = (byte) (Grid.DR.length - 1 - d); // the move from 'from' back to cell
+                queue[tail++] = from;
+            }
+        }
+    }
+
+    public int goal() {
+        return goal;
+    }
+
+    // Grid.version() when the field was built; the field is stale once they differ
+    public long version() {
+        return version;
+    }
+
+    public boolean isCurrent() {
+        return version == grid.version();
+    }
+
+    // Moves from cell to the goal, INF if the goal cannot be reached
+    public int distance(int cell) {
+        return dist[cell];
+    }
+
+    // The cell one step closer to the goal, or -1 at the goal and where it is unreachable
+    public int next(int cell) {
+        byte d = dirs[cell];
+        return d == NONE ? -1 : cell + Grid.DR[d] * grid.cols() + Grid.DC[d];
+    }
+
+    // Cells from start to the goal, or an empty array if the goal cannot be reached
+    public int[] path(int start) {
+        if (dist[start] == INF) return new int[0];
+        int[] path = new int[dist[start] + 1];
+        int cell = start;
+        for (int i = 0; i < path.length; i++) {
+            path[i] = cell;
+            cell = next(cell);
+        }
+        return path;
+    }
+
+    public long bytes() {
+        return (long) dist.length * Integer.BYTES + dirs.length;
+    }
+}
@@ -0,0 +1,63 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+// Flow fields of one Grid, kept by goal in least-recently-used order under a byte cap.
+// A field is only valid for the grid version it was built on, so the first lookup after
+// the grid changes drops every field at once. A field bigger than the cap is built and
+// returned but never kept.
+class FlowFieldCache {
+    private final Grid grid;
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, FlowField> fields = new LinkedHashMap<>(16, 0.75f, true);
+    private long version;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public FlowFieldCache(Grid grid, long maxBytes) {
+        this.grid = grid;
+        this.maxBytes = maxBytes;
+        this.version = grid.version();
+    }
+
+    // The field towards goal for the current grid, built on a miss
+    public synchronized FlowField get(int goal) {
+        if (version != grid.version()) {
+            evictions += fields.size();
+            fields.clear();
+            bytes = 0;
+            version = grid.version();
+        }
+        FlowField field = fields.get(goal);
+        if (field != null) {
+            hits++;
+            return field;
+        }
+        misses++;
+        field = new FlowField(grid, goal);
+        if (field.bytes() > maxBytes) return field;
+
+        Iterator<FlowField> eldest = fields.values().iterator();
+        while (bytes + field.bytes() > maxBytes) {
+            bytes -= eldest.next().bytes();
+            eldest.remove();
+            evictions++;
+        }
+        fields.put(goal, field);
+        bytes += field.bytes();
+        return field;
+    }
+
+    public synchronized long bytes() { return bytes; }
+    public synchronized int size() { return fields.size(); }
+    public synchronized long hits() { return hits; }
+    public synchronized long misses() { return misses; }
+    public synchronized long evictions() { return evictions; }
+
+    @Override
+    public synchronized String toString() {
+        return fields.size() + " fields, " + bytes + " bytes, " + hits + " hits, " + misses + " misses, "
+                + evictions + " evicted";
+    }
+}
@@ -0,0 +1,140 @@
+import java.nio.ByteBuffer;
+
+// Obstacle map for the grid searches. A cell is a single int, cell = row * cols + col,
+// and obstacles are packed one bit per cell, so a 10k x 10k map is 12.5 MB.
+// The bits sit in a ByteBuffer: a heap buffer for grids built in memory, or a
+// memory-mapped file region for grids opened through GridFile.
+class Grid {
+    // The eight moves, in the same order as State.moveGen
+    static final int[] DR = {-1, -1, -1,  0, 0,  1, 1, 1};
+    static final int[] DC = {-1,  0,  1, -1, 1, -1, 0, 1};
+    // Direction index by (dr + 1) * 3 + (dc + 1); -1 for standing still
+    private static final int[] DIRECTION = {0, 1, 2, 3, -1, 4, 5, 6, 7};
+
+    private final int rows;
+    private final int cols;
+    private final ByteBuffer blocked;
+    private final int[] offsets; // cell id delta for each of the eight moves
+    private long version;        // bumped by every setBlocked that changes a cell
+
+    public Grid(int rows, int cols) {
+        this(rows, cols, ByteBuffer.allocate(bitmapBytes(rows, cols)));
+    }
+
+    // Wraps an existing bitmap; bit (cell & 7) of byte (cell >>> 3) is set for an obstacle
+    Grid(int rows, int cols, ByteBuffer blocked) {
+        if (blocked.capacity() < bitmapBytes(rows, cols)) {
+            throw new IllegalArgumentException("bitmap too small for " + rows + " x " + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.blocked = blocked;
+        this.offsets = new int[DR.length];
+        for (int d = 0; d < DR.length; d++) {
+            offsets[d] = DR[d] * cols + DC[d];
+        }
+    }
+
+    // Copies an int[][] map where 1 marks an obstacle
+    public static Grid of(int[][] grid) {
+        Grid result = new Grid(grid.length, grid[0].length);
+        for (int r = 0; r < grid.length; r++) {
+            for (int c = 0; c < grid[r].length; c++) {
+                if (grid[r][c] == 1) result.setBlocked(result.cell(r, c), true);
+            }
+        }
+        return result;
+    }
+
+    static int bitmapBytes(int rows, int cols) {
+        if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("unsupported grid size " + rows + " x " + cols);
+        }
+        return (int) (((long) rows * cols + 7) >>> 3);
+    }
+
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+    public int size() { return rows * cols; }
+
+    public int cell(int row, int col) { return row * cols + col; }
+    public int row(int cell) { return cell / cols; }
+    public int col(int cell) { return cell % cols; }
+
+    ByteBuffer bitmap() {
+        return blocked.duplicate().clear();
+    }
+
+    // Changes whenever an obstacle is added or removed, so anything computed from this
+    // grid can tell whether it is stale. Writes to a mapped file from outside are not seen.
+    public long version() {
+        return version;
+    }
+
+    public boolean isBlocked(int cell) {
+        return (blocked.get(cell >>> 3) & (1 << (cell & 7))) != 0;
+    }
+
+    // Throws ReadOnlyBufferException when it changes a cell of a grid mapped read-only
+    public void setBlocked(int cell, boolean value) {
+        int index = cell >>> 3;
+        int bit = 1 << (cell & 7);
+        byte old = blocked.get(index);
+        byte updated = (byte) (value ? old | bit : old & ~bit);
+        if (updated == old) return;
+        blocked.put(index, updated);
+        version++;
+    }
+
+    // The cell one move in direction d (an index into DR and DC) from cell, or -1 if that
+    // is off the grid or blocked. Direction 7 - d is the move back.
+    public int step(int cell, int d) {
+        int r = cell / cols + DR[d];
+        int c = cell % cols + DC[d];
+        if (r < 0 || r >= rows || c < 0 || c >= cols) return -1;
+        int next = cell + offsets[d];
+        return isBlocked(next) ? -1 : next;
+    }
+
+    // Writes the free neighbours of cell into out (at least 8 long) and returns how many there are
+    public int neighbours(int cell, int[] out) {
+        int row = cell / cols;
+        int col = cell - row * cols;
+        int count = 0;
+        for (int d = 0; d < offsets.length; d++) {
+            int r = row + DR[d];
+            int c = col + DC[d];
+            if (r < 0 || r >= rows || c < 0 || c >= cols) continue;
+            int next = cell + offsets[d];
+            if (!isBlocked(next)) out[count++] = next;
+        }
+        return count;
+    }
+
+    // neighbours without the buffer: every free neighbour goes straight to sink at cost 1
+    public void forEachNeighbour(int cell, CellSink sink) {
+        int row = cell / cols;
+        int col = cell - row * cols;
+        for (int d = 0; d < offsets.length; d++) {
+            int r = row + DR[d];
+            int c = col + DC[d];
+            if (r < 0 || r >= rows || c < 0 || c >= cols) continue;
+            int next = cell + offsets[d];
+            if (!isBlocked(next)) sink.accept(next, 1);
+        }
+    }
+
+    // Index d of the move from cell to the neighbouring cell next, so step(cell, d) == next
+    public int direction(int cell, int next) {
+        int dr = next / cols - cell / cols;
+        int dc = next % cols - cell % cols;
+        if (dr < -1 || dr > 1 || dc < -1 || dc > 1 || (dr == 0 && dc == 0)) {
+            throw new IllegalArgumentException(toString(cell) + " and " + toString(next) + " are not neighbours");
+        }
+        return DIRECTION[(dr + 1) * 3 + dc + 1];
+    }
+
+    public String toString(int cell) {
+        return "(" + row(cell) + ", " + col(cell) + ")";
+    }
+}
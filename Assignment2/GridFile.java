@@ -0,0 +1,79 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// On-disk grid format: a 16-byte big-endian header followed by the obstacle bitmap.
+//
+//   int magic    'GRID'
+//   int version  1
+//   int rows
+//   int cols
+//   bitmap       ceil(rows * cols / 8) bytes, bit (cell & 7) of byte (cell >>> 3)
+//
+// The bitmap layout is the same one Grid uses in memory, so map() hands the mapped
+// region straight to Grid and searches read obstacles from the page cache.
+class GridFile {
+    static final int MAGIC = 0x47524944; // "GRID"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    public static void write(Grid grid, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(grid.rows()).putInt(grid.cols()).flip();
+            ByteBuffer bitmap = grid.bitmap().limit(Grid.bitmapBytes(grid.rows(), grid.cols()));
+            while (header.hasRemaining()) channel.write(header);
+            while (bitmap.hasRemaining()) channel.write(bitmap);
+        }
+    }
+
+    // Maps the file read-only; the grid cannot be edited but is shared through the page cache
+    public static Grid map(Path file) throws IOException {
+        return map(file, FileChannel.MapMode.READ_ONLY);
+    }
+
+    // Maps the file copy-on-write; edits stay private to this process and never reach the file
+    public static Grid mapPrivate(Path file) throws IOException {
+        return map(file, FileChannel.MapMode.PRIVATE);
+    }
+
+    private static Grid map(Path file, FileChannel.MapMode mode) throws IOException {
+        // A PRIVATE mapping still needs a writable channel, even though the file is never written
+        StandardOpenOption access = mode == FileChannel.MapMode.READ_ONLY
+                ? StandardOpenOption.READ : StandardOpenOption.WRITE;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, access)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) throw new IOException(file + ": truncated header");
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) throw new IOException(file + ": not a grid file");
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException(file + ": unsupported version " + version);
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int bytes = Grid.bitmapBytes(rows, cols);
+            if (channel.size() < HEADER_BYTES + (long) bytes) throw new IOException(file + ": truncated bitmap");
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer bitmap = channel.map(mode, HEADER_BYTES, bytes);
+            return new Grid(rows, cols, bitmap);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: java GridFile <map.grid>");
+            return;
+        }
+        Grid grid = map(Paths.get(args[0]));
+        int[] path = new GridSearch(grid).aStar(0, grid.size() - 1);
+        System.out.println(grid.rows() + " x " + grid.cols() + " grid, corner to corner path length: "
+                + (path.length == 0 ? "-1 (No path exists)" : String.valueOf(path.length)));
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.Random;
+
+// Seeded test maps for the grid searches
+class GridGenerator {
+
+    // Each cell is blocked with probability percent / 100
+    public static Grid random(int rows, int cols, int percent, long seed) {
+        Random random = new Random(seed);
+        Grid grid = new Grid(rows, cols);
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (random.nextInt(100) < percent) grid.setBlocked(cell, true);
+        }
+        return grid;
+    }
+
+    // Perfect maze carved by a randomized depth-first walk: rooms sit on odd rows and
+    // columns, walls everywhere else, and every room is reachable by exactly one corridor
+    public static Grid maze(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        Grid grid = new Grid(rows, cols);
+        for (int cell = 0; cell < grid.size(); cell++) grid.setBlocked(cell, true);
+
+        int roomRows = (rows - 1) / 2;
+        int roomCols = (cols - 1) / 2;
+        if (roomRows == 0 || roomCols == 0) return grid;
+        boolean[] visited = new boolean[roomRows * roomCols];
+        int[] stack = new int[roomRows * roomCols];
+        int[] options = new int[4];
+        int top = 0;
+        stack[top++] = 0;
+        visited[0] = true;
+        grid.setBlocked(grid.cell(1, 1), false);
+
+        while (top > 0) {
+            int room = stack[top - 1];
+            int r = room / roomCols;
+            int c = room % roomCols;
+            int count = 0;
+            if (r > 0 && !visited[room - roomCols]) options[count++] = room - roomCols;
+            if (r < roomRows - 1 && !visited[room + roomCols]) options[count++] = room + roomCols;
+            if (c > 0 && !visited[room - 1]) options[count++] = room - 1;
+            if (c < roomCols - 1 && !visited[room + 1]) options[count++] = room + 1;
+            if (count == 0) {
+                top--;
+                continue;
+            }
+            int next = options[random.nextInt(count)];
+            int nr = next / roomCols;
+            int nc = next % roomCols;
+            grid.setBlocked(grid.cell(r + nr + 1, c + nc + 1), false); // corridor between the rooms
+            grid.setBlocked(grid.cell(2 * nr + 1, 2 * nc + 1), false);
+            visited[next] = true;
+            stack[top++] = next;
+        }
+        return grid;
+    }
+}
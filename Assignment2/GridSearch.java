@@ -0,0 +1,218 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+// A* and greedy best-first search over a Grid. All per-cell search state lives in
+// flat arrays indexed by cell id, so expanding a node allocates nothing.
+// An instance can be reused for several queries on the same grid; only the cells the
+// previous query touched are reset, so short queries on a huge grid stay cheap.
+// Every query fills a SearchStats, available from stats() and handed to the listener.
+class GridSearch {
+    static final int INF = Integer.MAX_VALUE;
+
+    private final Grid grid;
+    private final int[] g;
+    private final CellTree parents;
+    private final BitSet closed;
+    private final IndexedMinHeap open;
+    private Heuristic estimator;
+    private int closedCount;
+    private SearchStats stats;
+    private SearchListener listener;
+    private final int[] improved = new int[8];
+    private int[] stack = new int[64];
+    private int[] touched = new int[64];
+    private int touchedCount;
+    private final CellSink relax = this::relax;
+    private final CellSink openGreedy = this::openGreedy;
+    private int current;       // node being expanded, for the sinks
+    private int currentGoal;
+
+    public GridSearch(Grid grid) {
+        this.grid = grid;
+        this.g = new int[grid.size()];
+        this.parents = new CellTree(grid);
+        this.closed = new BitSet(grid.size());
+        this.open = new IndexedMinHeap(grid.size());
+        this.estimator = Heuristic.manhattan(grid);
+        Arrays.fill(g, INF);
+    }
+
+    public GridSearch(Grid grid, Heuristic estimator) {
+        this(grid);
+        this.estimator = estimator;
+    }
+
+    public void setHeuristic(Heuristic estimator) {
+        this.estimator = estimator;
+    }
+
+    // h(N); Manhattan distance from cell to goal unless another Heuristic was plugged in
+    public int heuristic(int cell, int goal) {
+        return estimator.estimate(cell, goal);
+    }
+
+    // Number of nodes expanded by the last search
+    public int expanded() {
+        return stats == null ? 0 : (int) stats.expanded;
+    }
+
+    // What the last search did
+    public SearchStats stats() {
+        return stats;
+    }
+
+    // Listener for the searches that follow, or null for none
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    private void reset(String algorithm) {
+        for (int i = 0; i < touchedCount; i++) {
+            g[touched[i]] = INF;
+            closed.clear(touched[i]);
+        }
+        touchedCount = 0;
+        open.clear();
+        closedCount = 0;
+        stats = new SearchStats(algorithm);
+    }
+
+    private void close(int cell) {
+        closed.set(cell);
+        stats.closed(++closedCount);
+    }
+
+    private void expand(int cell, int cost) {
+        stats.expanded++;
+        if (listener != null) listener.expanded(cell, cost);
+    }
+
+    private int[] finish(int[] path) {
+        stats.finish(path.length);
+        if (listener != null) listener.finished(stats);
+        return path;
+    }
+
+    // Remembers a cell whose g or closed bit must be cleared before the next query
+    private void touch(int cell) {
+        if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+        touched[touchedCount++] = cell;
+    }
+
+    int[] reConstructPath(int goal) {
+        return parents.path(goal);
+    }
+
+    // Pushes an improved g(M) down to the descendants of closed cell m; every closed cell
+    // whose g drops counts as reopened, though none goes back on the open list
+    // It runs inside relax, so it walks neighbours through its own buffer, not a sink.
+    private void propagateImprovement(int m, int goal) {
+        int top = 0;
+        stack[top++] = m;
+        while (top > 0) {
+            int x = stack[--top];
+            int tentativeG = g[x] + 1; // g(X) + k(X,Y)
+            int count = grid.neighbours(x, improved);
+            for (int i = 0; i < count; i++) {
+                int y = improved[i];
+                if (tentativeG < g[y]) {
+                    parents.link(y, x);
+                    g[y] = tentativeG;
+                    if (open.contains(y)) {
+                        open.decreaseKey(y, tentativeG + heuristic(y, goal));
+                    }
+                    if (closed.get(y)) {
+                        stats.reopened++;
+                        if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                        stack[top++] = y;
+                    }
+                }
+            }
+        }
+    }
+
+    // Returns the cells from start to goal, or an empty array if goal is unreachable
+    public int[] aStar(int start, int goal) {
+        reset("aStar");
+        if (grid.isBlocked(start) || grid.isBlocked(goal)) return finish(new int[0]);
+
+        g[start] = 0;
+        parents.setRoot(start);
+        touch(start);
+        open.add(start, heuristic(start, goal));
+
+        while (!open.isEmpty()) {
+            int n = open.poll();
+            close(n);
+
+            if (n == goal) {
+                return finish(reConstructPath(n));
+            }
+            expand(n, g[n]);
+
+            current = n;
+            currentGoal = goal;
+            grid.forEachNeighbour(n, relax);
+            stats.frontier(open.size());
+        }
+        return finish(new int[0]);
+    }
+
+    private void relax(int m, int cost) {
+        stats.generated++;
+        int tentativeG = g[current] + cost; // g(N) + k(N,M)
+        if (tentativeG >= g[m]) {
+            stats.duplicates++;
+            return;
+        }
+        parents.link(m, current);
+        g[m] = tentativeG;
+        long f = tentativeG + heuristic(m, currentGoal);
+
+        if (open.contains(m)) {
+            open.decreaseKey(m, f);
+        } else if (closed.get(m)) {
+            stats.reopened++;
+            propagateImprovement(m, currentGoal);
+        } else {
+            touch(m);
+            open.add(m, f);
+        }
+    }
+
+    // Greedy best-first: the frontier is ordered on h alone and a cell is never opened twice
+    public int[] bestFirst(int start, int goal) {
+        reset("bestFirst");
+        if (grid.isBlocked(start) || grid.isBlocked(goal)) return finish(new int[0]);
+
+        parents.setRoot(start);
+        touch(start);
+        open.add(start, heuristic(start, goal));
+
+        while (!open.isEmpty()) {
+            int node = open.poll();
+            if (node == goal) {
+                return finish(reConstructPath(node));
+            }
+            close(node);
+            expand(node, 0);
+
+            current = node;
+            currentGoal = goal;
+            grid.forEachNeighbour(node, openGreedy);
+            stats.frontier(open.size());
+        }
+        return finish(new int[0]);
+    }
+
+    private void openGreedy(int child, int cost) {
+        stats.generated++;
+        if (open.contains(child) || closed.get(child)) {
+            stats.duplicates++;
+            return;
+        }
+        parents.link(child, current);
+        touch(child);
+        open.add(child, heuristic(child, currentGoal));
+    }
+}
@@ -0,0 +1,17 @@
+// Estimate of the remaining cost from a cell to the goal, used by GridSearch.
+// Every move costs 1, so an estimate is admissible when it never exceeds the number of
+// moves left; A* only guarantees shortest paths with an admissible estimate.
+interface Heuristic {
+    int estimate(int cell, int goal);
+
+    // |dr| + |dc|: the original calculateHValue. It overestimates diagonal moves on this grid,
+    // which is fine for greedy best-first but can make A* return longer paths.
+    static Heuristic manhattan(Grid grid) {
+        return (cell, goal) -> Math.abs(grid.row(goal) - grid.row(cell)) + Math.abs(grid.col(goal) - grid.col(cell));
+    }
+
+    // max(|dr|, |dc|): exact on an empty 8-connected grid, so admissible with obstacles
+    static Heuristic chebyshev(Grid grid) {
+        return (cell, goal) -> Math.max(Math.abs(grid.row(goal) - grid.row(cell)), Math.abs(grid.col(goal) - grid.col(cell)));
+    }
+}
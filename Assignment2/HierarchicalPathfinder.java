@@ -0,0 +1,350 @@
+import java.util.*;
+
+// HPA*: the grid is cut into square clusters, and the free cell pairs that cross each
+// cluster border become entrance nodes of a small abstract graph. Distances between the
+// entrances of a cluster are precomputed once, so a query searches the abstract graph
+// and then refines each abstract edge with the cell-level A* in GridSearch.
+// Editing a cell through setBlocked only marks the clusters whose entrances or inner
+// distances can change; they are rebuilt before the next query.
+// Paths are near-optimal: crossing a border is only allowed at an entrance.
+class HierarchicalPathfinder {
+    static final int INF = GridSearch.INF;
+
+    // Border runs at least this long get an entrance at each end instead of one in the middle
+    private static final int LONG_ENTRANCE = 6;
+
+    private static class Cluster {
+        int top, left, bottom, right;     // cell bounds, bottom/right exclusive
+        int[] nodes = new int[0];         // entrance cells on this side of the borders
+        int[] dist = new int[0];          // nodes.length^2 in-cluster distances, INF if unreachable
+        int[] index = new int[0];         // entrance number by local cell, -1 for other cells
+    }
+
+    private final Grid grid;
+    private final GridSearch refiner;
+    private final int clusterSize;
+    private final int clusterRows;
+    private final int clusterCols;
+    private final Cluster[] clusters;
+    private final BitSet dirty;
+
+    private final int[] localDist;
+    private final int[] localQueue;
+    private final int[] successors = new int[8];
+
+    // Abstract node ids: entrance j of cluster c is c * stride + j; start and goal come last
+    private final int stride;
+    private final int startNode;
+    private final int goalNode;
+    private final int[] absG;
+    private final int[] absParent;
+    private final IndexedMinHeap open;
+    private int[] touched = new int[64];
+    private int touchedCount;
+    private int startCell;
+    private int goalCell;
+
+    public HierarchicalPathfinder(Grid grid, int clusterSize) {
+        if (clusterSize < 2) throw new IllegalArgumentException("cluster size must be at least 2: " + clusterSize);
+        this.grid = grid;
+        this.refiner = new GridSearch(grid, Heuristic.chebyshev(grid));
+        this.clusterSize = clusterSize;
+        this.clusterRows = (grid.rows() + clusterSize - 1) / clusterSize;
+        this.clusterCols = (grid.cols() + clusterSize - 1) / clusterSize;
+        this.clusters = new Cluster[clusterRows * clusterCols];
+        this.dirty = new BitSet(clusters.length);
+        this.localDist = new int[clusterSize * clusterSize];
+        this.localQueue = new int[clusterSize * clusterSize];
+        this.stride = 4 * clusterSize; // a cluster has at most 4 * clusterSize - 4 border cells
+        this.startNode = clusters.length * stride;
+        this.goalNode = startNode + 1;
+        this.absG = new int[goalNode + 1];
+        this.absParent = new int[goalNode + 1];
+        this.open = new IndexedMinHeap(goalNode + 1);
+        Arrays.fill(absG, INF);
+
+        for (int cr = 0; cr < clusterRows; cr++) {
+            for (int cc = 0; cc < clusterCols; cc++) {
+                Cluster c = new Cluster();
+                c.top = cr * clusterSize;
+                c.left = cc * clusterSize;
+                c.bottom = Math.min(c.top + clusterSize, grid.rows());
+                c.right = Math.min(c.left + clusterSize, grid.cols());
+                clusters[cr * clusterCols + cc] = c;
+            }
+        }
+        dirty.set(0, clusters.length);
+        rebuild();
+    }
+
+    private int clusterOf(int cell) {
+        return (grid.row(cell) / clusterSize) * clusterCols + grid.col(cell) / clusterSize;
+    }
+
+    // Edits the grid and marks the clusters the edit can affect
+    public void setBlocked(int cell, boolean value) {
+        grid.setBlocked(cell, value);
+        cellChanged(cell);
+    }
+
+    // Marks the clusters affected by an edit that was made to the grid directly
+    public void cellChanged(int cell) {
+        int id = clusterOf(cell);
+        Cluster c = clusters[id];
+        int row = grid.row(cell);
+        int col = grid.col(cell);
+        dirty.set(id);
+        // a cell on a border also decides the entrances of the cluster across it,
+        // and a corner cell the corner entrance of the diagonal cluster
+        boolean up = row == c.top && row > 0;
+        boolean down = row == c.bottom - 1 && c.bottom < grid.rows();
+        boolean left = col == c.left && col > 0;
+        boolean right = col == c.right - 1 && c.right < grid.cols();
+        if (up) dirty.set(id - clusterCols);
+        if (down) dirty.set(id + clusterCols);
+        if (left) dirty.set(id - 1);
+        if (right) dirty.set(id + 1);
+        if (up && left) dirty.set(id - clusterCols - 1);
+        if (up && right) dirty.set(id - clusterCols + 1);
+        if (down && left) dirty.set(id + clusterCols - 1);
+        if (down && right) dirty.set(id + clusterCols + 1);
+    }
+
+    private void rebuild() {
+        for (int id = dirty.nextSetBit(0); id >= 0; id = dirty.nextSetBit(id + 1)) {
+            buildCluster(clusters[id], id);
+        }
+        dirty.clear();
+    }
+
+    private void buildCluster(Cluster c, int id) {
+        int cr = id / clusterCols;
+        int cc = id % clusterCols;
+        List<Integer> nodes = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        if (cr > 0) addEntrances(nodes, seen, c.top, c.left, 0, 1, c.right - c.left, -1, 0);
+        if (cr < clusterRows - 1) addEntrances(nodes, seen, c.bottom - 1, c.left, 0, 1, c.right - c.left, 1, 0);
+        if (cc > 0) addEntrances(nodes, seen, c.top, c.left, 1, 0, c.bottom - c.top, 0, -1);
+        if (cc < clusterCols - 1) addEntrances(nodes, seen, c.top, c.right - 1, 1, 0, c.bottom - c.top, 0, 1);
+        addCorner(nodes, seen, c.top, c.left, -1, -1);
+        addCorner(nodes, seen, c.top, c.right - 1, -1, 1);
+        addCorner(nodes, seen, c.bottom - 1, c.left, 1, -1);
+        addCorner(nodes, seen, c.bottom - 1, c.right - 1, 1, 1);
+
+        int k = nodes.size();
+        c.nodes = new int[k];
+        if (c.index.length == 0) c.index = new int[clusterSize * clusterSize];
+        Arrays.fill(c.index, -1);
+        for (int i = 0; i < k; i++) {
+            c.nodes[i] = nodes.get(i);
+            c.index[local(c, c.nodes[i])] = i;
+        }
+        c.dist = new int[k * k];
+        for (int i = 0; i < k; i++) {
+            clusterBfs(c, c.nodes[i]);
+            for (int j = 0; j < k; j++) {
+                c.dist[i * k + j] = localDist[local(c, c.nodes[j])];
+            }
+        }
+    }
+
+    // Scans one border of a cluster, walking `length` cells from (row, col) by (stepRow, stepCol);
+    // (outRow, outCol) points across the border. Both clusters of a border run the same scan
+    // with inside and outside swapped, so they always pick the two ends of the same crossings.
+    private void addEntrances(List<Integer> nodes, Set<Integer> seen, int row, int col,
+                              int stepRow, int stepCol, int length, int outRow, int outCol) {
+        boolean[] in = new boolean[length];
+        boolean[] out = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            int r = row + i * stepRow;
+            int c = col + i * stepCol;
+            in[i] = !grid.isBlocked(grid.cell(r, c));
+            out[i] = !grid.isBlocked(grid.cell(r + outRow, c + outCol));
+        }
+
+        // runs of straight crossings: one entrance in the middle, or one at each end of a long run
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean open = i < length && in[i] && out[i];
+            if (open && runStart < 0) runStart = i;
+            if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 < LONG_ENTRANCE) {
+                    addNode(nodes, seen, row + (runStart + runEnd) / 2 * stepRow, col + (runStart + runEnd) / 2 * stepCol);
+                } else {
+                    addNode(nodes, seen, row + runStart * stepRow, col + runStart * stepCol);
+                    addNode(nodes, seen, row + runEnd * stepRow, col + runEnd * stepCol);
+                }
+                runStart = -1;
+            }
+        }
+
+        // diagonal crossings that no straight crossing next to them already covers
+        for (int i = 0; i + 1 < length; i++) {
+            if ((in[i] && out[i]) || (in[i + 1] && out[i + 1])) continue;
+            if (in[i] && out[i + 1]) addNode(nodes, seen, row + i * stepRow, col + i * stepCol);
+            if (in[i + 1] && out[i]) addNode(nodes, seen, row + (i + 1) * stepRow, col + (i + 1) * stepCol);
+        }
+    }
+
+    // A corner cell is an entrance when the diagonally opposite cell of the corner cluster is free
+    private void addCorner(List<Integer> nodes, Set<Integer> seen, int row, int col, int outRow, int outCol) {
+        int r = row + outRow;
+        int c = col + outCol;
+        if (r < 0 || r >= grid.rows() || c < 0 || c >= grid.cols()) return;
+        if (!grid.isBlocked(grid.cell(row, col)) && !grid.isBlocked(grid.cell(r, c))) addNode(nodes, seen, row, col);
+    }
+
+    private void addNode(List<Integer> nodes, Set<Integer> seen, int row, int col) {
+        int cell = grid.cell(row, col);
+        if (seen.add(cell)) nodes.add(cell);
+    }
+
+    private int local(Cluster c, int cell) {
+        return (grid.row(cell) - c.top) * clusterSize + (grid.col(cell) - c.left);
+    }
+
+    // Unit-cost BFS from source that never leaves cluster c; fills localDist
+    private void clusterBfs(Cluster c, int source) {
+        Arrays.fill(localDist, INF);
+        int height = c.bottom - c.top;
+        int width = c.right - c.left;
+        int head = 0;
+        int tail = 0;
+        localDist[local(c, source)] = 0;
+        localQueue[tail++] = local(c, source);
+        while (head < tail) {
+            int l = localQueue[head++];
+            int r = l / clusterSize;
+            int col = l % clusterSize;
+            int d = localDist[l] + 1;
+            for (int k = 0; k < Grid.DR.length; k++) {
+                int nr = r + Grid.DR[k];
+                int nc = col + Grid.DC[k];
+                if (nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+                int next = nr * clusterSize + nc;
+                if (localDist[next] != INF || grid.isBlocked(grid.cell(c.top + nr, c.left + nc))) continue;
+                localDist[next] = d;
+                localQueue[tail++] = next;
+            }
+        }
+    }
+
+    // In-cluster distances from cell to every entrance of its cluster
+    private int[] distancesToNodes(Cluster c, int cell) {
+        clusterBfs(c, cell);
+        int[] d = new int[c.nodes.length];
+        for (int i = 0; i < d.length; i++) d[i] = localDist[local(c, c.nodes[i])];
+        return d;
+    }
+
+    private int heuristic(int cell, int goal) {
+        return Math.max(Math.abs(grid.row(goal) - grid.row(cell)), Math.abs(grid.col(goal) - grid.col(cell)));
+    }
+
+    // Returns every cell from start to goal, or an empty array if no path is found
+    public int[] search(int start, int goal) {
+        if (grid.isBlocked(start) || grid.isBlocked(goal)) return new int[0];
+        rebuild();
+        if (start == goal) return new int[]{start};
+        resetAbstract();
+        startCell = start;
+        goalCell = goal;
+
+        int startId = clusterOf(start);
+        int goalId = clusterOf(goal);
+        int[] fromStart = distancesToNodes(clusters[startId], start);
+        int startToGoal = startId == goalId ? localDist[local(clusters[startId], goal)] : INF;
+        int[] toGoal = distancesToNodes(clusters[goalId], goal);
+
+        // A* over the abstract graph; start and goal take part as temporary nodes
+        absG[startNode] = 0;
+        absParent[startNode] = -1;
+        touchAbstract(startNode);
+        open.add(startNode, key(0, heuristic(start, goal)));
+
+        while (!open.isEmpty()) {
+            int node = open.poll();
+            if (node == goalNode) {
+                return refine();
+            }
+            if (node == startNode) {
+                for (int j = 0; j < fromStart.length; j++) relax(node, startId * stride + j, fromStart[j]);
+                relax(node, goalNode, startToGoal);
+                continue;
+            }
+
+            int id = node / stride;
+            int i = node % stride;
+            Cluster c = clusters[id];
+            int k = c.nodes.length;
+            for (int j = 0; j < k; j++) relax(node, id * stride + j, c.dist[i * k + j]);
+            if (id == goalId) relax(node, goalNode, toGoal[i]);
+
+            // crossing edges to entrances of neighbouring clusters
+            int count = grid.neighbours(c.nodes[i], successors);
+            for (int s = 0; s < count; s++) {
+                int next = successors[s];
+                int otherId = clusterOf(next);
+                if (otherId == id) continue;
+                Cluster other = clusters[otherId];
+                int j = other.index[local(other, next)];
+                if (j >= 0) relax(node, otherId * stride + j, 1);
+            }
+        }
+        return new int[0];
+    }
+
+    private int cellOf(int node) {
+        if (node == startNode) return startCell;
+        if (node == goalNode) return goalCell;
+        return clusters[node / stride].nodes[node % stride];
+    }
+
+    // Orders on f = g + h, and on larger g among equal f so the search runs along one of the
+    // many equally short paths instead of widening over all of them
+    private static long key(int g, int h) {
+        return ((long) (g + h) << 32) | (Integer.MAX_VALUE - g);
+    }
+
+    private void relax(int from, int to, int cost) {
+        if (cost == INF || to == from) return;
+        int tentativeG = absG[from] + cost;
+        if (tentativeG < absG[to]) {
+            if (absG[to] == INF) touchAbstract(to);
+            absG[to] = tentativeG;
+            absParent[to] = from;
+            open.update(to, key(tentativeG, heuristic(cellOf(to), goalCell)));
+        }
+    }
+
+    private void resetAbstract() {
+        for (int i = 0; i < touchedCount; i++) absG[touched[i]] = INF;
+        touchedCount = 0;
+        open.clear();
+    }
+
+    private void touchAbstract(int node) {
+        if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+        touched[touchedCount++] = node;
+    }
+
+    // Replaces each abstract edge by the cell path found by the cell-level A*
+    private int[] refine() {
+        int length = 0;
+        for (int node = goalNode; node != -1; node = absParent[node]) length++;
+        int[] abstractPath = new int[length];
+        for (int node = goalNode; node != -1; node = absParent[node]) abstractPath[--length] = cellOf(node);
+
+        List<Integer> cells = new ArrayList<>();
+        cells.add(abstractPath[0]);
+        for (int i = 1; i < abstractPath.length; i++) {
+            if (abstractPath[i] == abstractPath[i - 1]) continue;
+            int[] segment = refiner.aStar(abstractPath[i - 1], abstractPath[i]);
+            for (int j = 1; j < segment.length; j++) cells.add(segment[j]);
+        }
+        int[] path = new int[cells.size()];
+        for (int i = 0; i < path.length; i++) path[i] = cells.get(i);
+        return path;
+    }
+}
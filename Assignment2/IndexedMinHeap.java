@@ -0,0 +1,122 @@
+import java.util.Arrays;
+
+// Binary min-heap over dense integer ids 0..capacity-1, each with a long key.
+// pos[id] tracks where an id sits in the heap, so contains is O(1) and
+// decreaseKey/update/remove are O(log n) instead of a linear PriorityQueue scan.
+// Only pos is sized by capacity; ids and keys are stored per heap slot and grow
+// with the frontier, so a huge grid costs 4 bytes per cell here.
+class IndexedMinHeap {
+    private int[] heap;        // heap slot -> id
+    private long[] keys;       // heap slot -> key
+    private final int[] pos;   // id -> heap slot, -1 when not in the heap
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[Math.min(capacity, 1024)];
+        keys = new long[heap.length];
+        pos = new int[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    public boolean isEmpty() { return size == 0; }
+    public int size() { return size; }
+    public int capacity() { return pos.length; }
+
+    public boolean contains(int id) {
+        return pos[id] >= 0;
+    }
+
+    public long key(int id) {
+        return keys[pos[id]];
+    }
+
+    public void add(int id, long key) {
+        if (pos[id] >= 0) throw new IllegalStateException("id " + id + " is already in the heap");
+        if (size == heap.length) {
+            int grown = (int) Math.min(pos.length, 2L * size);
+            heap = Arrays.copyOf(heap, grown);
+            keys = Arrays.copyOf(keys, grown);
+        }
+        siftUp(size++, id, key);
+    }
+
+    public void decreaseKey(int id, long key) {
+        int slot = pos[id];
+        if (key > keys[slot]) throw new IllegalArgumentException("new key " + key + " is larger than " + keys[slot]);
+        siftUp(slot, id, key);
+    }
+
+    // Inserts id, or moves it to its new key in either direction.
+    public void update(int id, long key) {
+        if (pos[id] < 0) {
+            add(id, key);
+            return;
+        }
+        int slot = pos[id];
+        if (key < keys[slot]) siftUp(slot, id, key);
+        else siftDown(slot, id, key);
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    public long peekKey() {
+        return keys[0];
+    }
+
+    public int poll() {
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    public void remove(int id) {
+        if (pos[id] >= 0) removeAt(pos[id]);
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void removeAt(int slot) {
+        pos[heap[slot]] = -1;
+        if (--size == slot) return;
+        int id = heap[size];
+        long key = keys[size];
+        siftDown(slot, id, key);
+        if (pos[id] == slot) siftUp(slot, id, key);
+    }
+
+    // Moves id with key up from slot until its parent is not larger.
+    private void siftUp(int slot, int id, long key) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            place(slot, heap[parent], keys[parent]);
+            slot = parent;
+        }
+        place(slot, id, key);
+    }
+
+    // Moves id with key down from slot until neither child is smaller.
+    private void siftDown(int slot, int id, long key) {
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && keys[right] < keys[child]) child = right;
+            if (key <= keys[child]) break;
+            place(slot, heap[child], keys[child]);
+            slot = child;
+        }
+        place(slot, id, key);
+    }
+
+    private void place(int slot, int id, long key) {
+        heap[slot] = id;
+        keys[slot] = key;
+        pos[id] = slot;
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Jump Point Search over the 8-connected Grid with unit cost per move, as in State.moveGen
+// (diagonal moves may pass between two obstacles). Instead of opening every neighbour,
+// a node only follows its natural and forced directions and jumps along each one until it
+// reaches a cell that has a forced neighbour or leads to one, so symmetric paths through
+// open space are never pushed onto the open list. Paths are as short as A* with an
+// admissible heuristic; h is the Chebyshev distance, exact on an open unit-cost grid.
+class JumpPointSearch {
+    private final Grid grid;
+    private final int rows;
+    private final int cols;
+    private final int[] g;
+    private final int[] parent;
+    private final BitSet closed;
+    private final IndexedMinHeap open;
+    private int goalRow;
+    private int goalCol;
+    private int expanded;
+
+    public JumpPointSearch(Grid grid) {
+        this.grid = grid;
+        this.rows = grid.rows();
+        this.cols = grid.cols();
+        this.g = new int[grid.size()];
+        this.parent = new int[grid.size()];
+        this.closed = new BitSet(grid.size());
+        this.open = new IndexedMinHeap(grid.size());
+    }
+
+    // Number of jump points expanded by the last search
+    public int expanded() {
+        return expanded;
+    }
+
+    private boolean blocked(int row, int col) {
+        return row < 0 || row >= rows || col < 0 || col >= cols || grid.isBlocked(row * cols + col);
+    }
+
+    private int heuristic(int row, int col) {
+        return Math.max(Math.abs(goalRow - row), Math.abs(goalCol - col));
+    }
+
+    // Returns every cell from start to goal, or an empty array if goal is unreachable
+    public int[] search(int start, int goal) {
+        expanded = 0;
+        if (grid.isBlocked(start) || grid.isBlocked(goal)) return new int[0];
+        goalRow = grid.row(goal);
+        goalCol = grid.col(goal);
+        Arrays.fill(g, GridSearch.INF);
+        closed.clear();
+        open.clear();
+
+        g[start] = 0;
+        parent[start] = -1;
+        open.add(start, heuristic(grid.row(start), grid.col(start)));
+
+        while (!open.isEmpty()) {
+            int node = open.poll();
+            closed.set(node);
+            if (node == goal) {
+                return reConstructPath(goal);
+            }
+            expanded++;
+
+            int row = grid.row(node);
+            int col = grid.col(node);
+            if (parent[node] == -1) {
+                for (int d = 0; d < Grid.DR.length; d++) {
+                    jumpFrom(node, row, col, Grid.DR[d], Grid.DC[d]);
+                }
+                continue;
+            }
+            int dr = Integer.signum(row - grid.row(parent[node]));
+            int dc = Integer.signum(col - grid.col(parent[node]));
+            if (dr != 0 && dc != 0) {
+                // natural: both straight components and the diagonal itself
+                jumpFrom(node, row, col, dr, 0);
+                jumpFrom(node, row, col, 0, dc);
+                jumpFrom(node, row, col, dr, dc);
+                // forced: the cells behind us on either side are walls
+                if (blocked(row - dr, col)) jumpFrom(node, row, col, -dr, dc);
+                if (blocked(row, col - dc)) jumpFrom(node, row, col, dr, -dc);
+            } else if (dr != 0) {
+                jumpFrom(node, row, col, dr, 0);
+                if (blocked(row, col + 1)) jumpFrom(node, row, col, dr, 1);
+                if (blocked(row, col - 1)) jumpFrom(node, row, col, dr, -1);
+            } else {
+                jumpFrom(node, row, col, 0, dc);
+                if (blocked(row + 1, col)) jumpFrom(node, row, col, 1, dc);
+                if (blocked(row - 1, col)) jumpFrom(node, row, col, -1, dc);
+            }
+        }
+        return new int[0];
+    }
+
+    // Jumps from node in direction (dr, dc) and relaxes the jump point it lands on, if any
+    private void jumpFrom(int node, int row, int col, int dr, int dc) {
+        int jump = jump(row, col, dr, dc);
+        if (jump < 0 || closed.get(jump)) return;
+        int jr = grid.row(jump);
+        int jc = grid.col(jump);
+        int tentativeG = g[node] + Math.max(Math.abs(jr - row), Math.abs(jc - col));
+        if (tentativeG < g[jump]) {
+            g[jump] = tentativeG;
+            parent[jump] = node;
+            open.update(jump, tentativeG + heuristic(jr, jc));
+        }
+    }
+
+    // First jump point reached by walking from (row, col) in direction (dr, dc), or -1
+    private int jump(int row, int col, int dr, int dc) {
+        while (true) {
+            row += dr;
+            col += dc;
+            if (blocked(row, col)) return -1;
+            if (row == goalRow && col == goalCol) return row * cols + col;
+
+            if (dr != 0 && dc != 0) {
+                if ((blocked(row - dr, col) && !blocked(row - dr, col + dc))
+                        || (blocked(row, col - dc) && !blocked(row + dr, col - dc))) {
+                    return row * cols + col;
+                }
+                if (jump(row, col, dr, 0) >= 0 || jump(row, col, 0, dc) >= 0) {
+                    return row * cols + col;
+                }
+            } else if (dr != 0) {
+                if ((blocked(row, col + 1) && !blocked(row + dr, col + 1))
+                        || (blocked(row, col - 1) && !blocked(row + dr, col - 1))) {
+                    return row * cols + col;
+                }
+            } else {
+                if ((blocked(row + 1, col) && !blocked(row + 1, col + dc))
+                        || (blocked(row - 1, col) && !blocked(row - 1, col + dc))) {
+                    return row * cols + col;
+                }
+            }
+        }
+    }
+
+    // Expands the chain of jump points into every cell along the way
+    int[] reConstructPath(int goal) {
+        int length = 1;
+        for (int cell = goal; parent[cell] != -1; cell = parent[cell]) {
+            int from = parent[cell];
+            length += Math.max(Math.abs(grid.row(cell) - grid.row(from)), Math.abs(grid.col(cell) - grid.col(from)));
+        }
+        int[] path = new int[length];
+        int i = length;
+        path[--i] = goal;
+        for (int cell = goal; parent[cell] != -1; cell = parent[cell]) {
+            int from = parent[cell];
+            int dr = Integer.signum(grid.row(from) - grid.row(cell));
+            int dc = Integer.signum(grid.col(from) - grid.col(cell));
+            int r = grid.row(cell);
+            int c = grid.col(cell);
+            while (r * cols + c != from) {
+                r += dr;
+                c += dc;
+                path[--i] = r * cols + c;
+            }
+        }
+        return path;
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.Arrays;
+
+// ALT heuristic (A*, Landmarks, Triangle inequality). Exact move distances from a few
+// landmark cells are computed once per grid by BFS; for any landmark L,
+// |d(L, goal) - d(L, cell)| <= d(cell, goal), so the largest such bound, together with
+// the Chebyshev distance, is still admissible but sees the walls of a maze.
+// Landmarks are chosen by farthest-point selection, which puts them on the map's fringes.
+// Distances are stored as one char (unsigned 16 bits) per cell while they fit, else as int.
+// The tables describe the grid as it was when built: rebuild after editing the grid.
+class LandmarkHeuristic implements Heuristic {
+    private static final int UNREACHED = -1;
+    private static final char SMALL_UNREACHED = Character.MAX_VALUE;
+
+    private final Grid grid;
+    private final int[] landmarks;
+    private final char[][] small; // used when every distance is below SMALL_UNREACHED
+    private final int[][] large;
+
+    public LandmarkHeuristic(Grid grid, int count) {
+        this.grid = grid;
+        // each table is narrowed as soon as its BFS is done; the first distance that does not
+        // fit in a char widens the tables kept so far, and the rest stay int
+        char[][] narrow = new char[count][];
+        int[][] wide = null;
+        int[] chosen = new int[count];
+        int found = 0;
+
+        // min distance from each cell to the landmarks chosen so far
+        int[] nearest = new int[grid.size()];
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+        int seed = firstFree();
+        int[] queue = new int[grid.size()];
+        int[] dist = new int[grid.size()];
+        int[] buffer = new int[8];
+        if (seed >= 0) {
+            bfs(seed, dist, queue, buffer);
+            int next = farthest(dist);
+            while (found < count && next >= 0) {
+                int max = bfs(next, dist, queue, buffer);
+                if (wide == null && max >= SMALL_UNREACHED) wide = widen(narrow, found, count);
+                if (wide != null) wide[found] = dist.clone();
+                else narrow[found] = narrow(dist);
+                chosen[found++] = next;
+                for (int cell = 0; cell < dist.length; cell++) {
+                    if (dist[cell] != UNREACHED) nearest[cell] = Math.min(nearest[cell], dist[cell]);
+                }
+                next = farthest(nearest);
+                if (next >= 0 && nearest[next] == 0) next = -1;
+            }
+        }
+
+        this.landmarks = Arrays.copyOf(chosen, found);
+        this.small = wide == null ? Arrays.copyOf(narrow, found) : null;
+        this.large = wide == null ? null : Arrays.copyOf(wide, found);
+    }
+
+    private static char[] narrow(int[] dist) {
+        char[] table = new char[dist.length];
+        for (int cell = 0; cell < dist.length; cell++) {
+            table[cell] = dist[cell] == UNREACHED ? SMALL_UNREACHED : (char) dist[cell];
+        }
+        return table;
+    }
+
+    private static int[][] widen(char[][] narrow, int found, int count) {
+        int[][] wide = new int[count][];
+        for (int i = 0; i < found; i++) {
+            wide[i] = new int[narrow[i].length];
+            for (int cell = 0; cell < wide[i].length; cell++) {
+                wide[i][cell] = narrow[i][cell] == SMALL_UNREACHED ? UNREACHED : narrow[i][cell];
+            }
+            narrow[i] = null;
+        }
+        return wide;
+    }
+
+    public int[] landmarks() {
+        return landmarks.clone();
+    }
+
+    private int firstFree() {
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (!grid.isBlocked(cell)) return cell;
+        }
+        return -1;
+    }
+
+    // Cell with the largest reachable distance, or -1 if none is reachable
+    private static int farthest(int[] dist) {
+        int best = -1;
+        for (int cell = 0; cell < dist.length; cell++) {
+            if (dist[cell] != UNREACHED && dist[cell] != Integer.MAX_VALUE && (best < 0 || dist[cell] > dist[best])) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    // Fills dist with move distances from source and returns the largest
+    private int bfs(int source, int[] dist, int[] queue, int[] buffer) {
+        Arrays.fill(dist, UNREACHED);
+        int head = 0;
+        int tail = 0;
+        dist[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int cell = queue[head++];
+            int count = grid.neighbours(cell, buffer);
+            for (int i = 0; i < count; i++) {
+                int next = buffer[i];
+                if (dist[next] != UNREACHED) continue;
+                dist[next] = dist[cell] + 1;
+                queue[tail++] = next;
+            }
+        }
+        return dist[queue[tail - 1]];
+    }
+
+    @Override
+    public int estimate(int cell, int goal) {
+        int h = Math.max(Math.abs(grid.row(goal) - grid.row(cell)), Math.abs(grid.col(goal) - grid.col(cell)));
+        if (small != null) {
+            for (char[] dist : small) {
+                int dc = dist[cell];
+                int dg = dist[goal];
+                if (dc != SMALL_UNREACHED && dg != SMALL_UNREACHED) h = Math.max(h, Math.abs(dg - dc));
+            }
+        } else {
+            for (int[] dist : large) {
+                int dc = dist[cell];
+                int dg = dist[goal];
+                if (dc != UNREACHED && dg != UNREACHED) h = Math.max(h, Math.abs(dg - dc));
+            }
+        }
+        return h;
+    }
+}
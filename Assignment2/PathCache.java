@@ -0,0 +1,219 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+// Answers to repeated path queries on one Grid, kept in least-recently-used order under an
+// entry cap and a byte cap. A path is stored as its first cell and one byte per move (an
+// index into Grid.DR/DC), so an entry costs about one byte per cell of the path.
+//
+// Entries belong to the grid version they were checked against. Edits made through
+// setBlocked, or reported through cellChanged, keep every entry that is still right:
+// blocking a cell only drops the paths that cross it (a shortest path that avoids it stays
+// shortest), while freeing a cell can shorten any path or connect any pair, so it drops
+// everything. Any other change to the grid drops everything at the next lookup.
+class PathCache {
+    // Computes the path for a miss, e.g. gridSearch::aStar
+    interface Planner {
+        int[] plan(int start, int goal);
+    }
+
+    private static final int ENTRY_BYTES = 64;   // rough cost of an entry besides its moves
+    private static final byte[] NO_MOVES = new byte[0];
+
+    private static final class Key {
+        final int start;
+        final int goal;
+        final String algorithm;
+
+        Key(int start, int goal, String algorithm) {
+            this.start = start;
+            this.goal = goal;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return start == other.start && goal == other.goal && algorithm.equals(other.algorithm);
+        }
+
+        @Override
+        public int hashCode() {
+            return (start * 31 + goal) * 31 + algorithm.hashCode();
+        }
+    }
+
+    private static final class Entry {
+        final int first;          // first cell, -1 for "no path"
+        final byte[] moves;
+        final int top, left, bottom, right;   // bounding box of the path, to skip most scans
+
+        Entry(int first, byte[] moves, int top, int left, int bottom, int right) {
+            this.first = first;
+            this.moves = moves;
+            this.top = top;
+            this.left = left;
+            this.bottom = bottom;
+            this.right = right;
+        }
+
+        long bytes() {
+            return ENTRY_BYTES + moves.length;
+        }
+    }
+
+    private final Grid grid;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long version;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public PathCache(Grid grid, int maxEntries, long maxBytes) {
+        this.grid = grid;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.version = grid.version();
+    }
+
+    // The cached path for (start, goal, algorithm), or the planner's answer on a miss.
+    // The planner runs outside the lock; its answer is not kept if the grid changed meanwhile.
+    public int[] find(int start, int goal, String algorithm, Planner planner) {
+        int[] path = get(start, goal, algorithm);
+        if (path != null) return path;
+        long planned = grid.version();
+        path = planner.plan(start, goal);
+        synchronized (this) {
+            if (grid.version() == planned) put(start, goal, algorithm, path);
+        }
+        return path;
+    }
+
+    // The cached path, or null on a miss; an empty array is a cached "no path"
+    public synchronized int[] get(int start, int goal, String algorithm) {
+        checkVersion();
+        Entry entry = entries.get(new Key(start, goal, algorithm));
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return decode(entry);
+    }
+
+    public synchronized void put(int start, int goal, String algorithm, int[] path) {
+        checkVersion();
+        Entry entry = encode(path);
+        if (entry.bytes() > maxBytes || maxEntries == 0) return;
+        Entry old = entries.put(new Key(start, goal, algorithm), entry);
+        if (old != null) bytes -= old.bytes();
+        bytes += entry.bytes();
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries || bytes > maxBytes) {
+            bytes -= eldest.next().bytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // Edits the grid and drops the entries the edit can make wrong
+    public synchronized void setBlocked(int cell, boolean value) {
+        grid.setBlocked(cell, value);
+        cellChanged(cell);
+    }
+
+    // Drops the entries made wrong by an edit that was made to the grid directly. Only a
+    // single outstanding edit can be matched to cell; after more, every entry goes.
+    public synchronized void cellChanged(int cell) {
+        if (grid.version() == version) return;
+        if (grid.version() != version + 1 || !grid.isBlocked(cell)) {
+            dropAll();
+        } else {
+            int row = grid.row(cell);
+            int col = grid.col(cell);
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (row < entry.top || row > entry.bottom || col < entry.left || col > entry.right) continue;
+                if (crosses(entry, cell)) {
+                    bytes -= entry.bytes();
+                    it.remove();
+                    invalidations++;
+                }
+            }
+        }
+        version = grid.version();
+    }
+
+    private void checkVersion() {
+        if (version != grid.version()) {
+            dropAll();
+            version = grid.version();
+        }
+    }
+
+    private void dropAll() {
+        invalidations += entries.size();
+        entries.clear();
+        bytes = 0;
+    }
+
+    private boolean crosses(Entry entry, int target) {
+        if (entry.first < 0) return false;
+        int cell = entry.first;
+        if (cell == target) return true;
+        for (byte d : entry.moves) {
+            cell += Grid.DR[d] * grid.cols() + Grid.DC[d];
+            if (cell == target) return true;
+        }
+        return false;
+    }
+
+    private Entry encode(int[] path) {
+        if (path.length == 0) return new Entry(-1, NO_MOVES, 0, 0, -1, -1);
+        byte[] moves = new byte[path.length - 1];
+        int top = grid.row(path[0]);
+        int bottom = top;
+        int left = grid.col(path[0]);
+        int right = left;
+        for (int i = 1; i < path.length; i++) {
+            int row = grid.row(path[i]);
+            int col = grid.col(path[i]);
+            moves[i - 1] = (byte) grid.direction(path[i - 1], path[i]);
+            top = Math.min(top, row);
+            bottom = Math.max(bottom, row);
+            left = Math.min(left, col);
+            right = Math.max(right, col);
+        }
+        return new Entry(path[0], moves, top, left, bottom, right);
+    }
+
+    private int[] decode(Entry entry) {
+        if (entry.first < 0) return new int[0];
+        int[] path = new int[entry.moves.length + 1];
+        path[0] = entry.first;
+        for (int i = 0; i < entry.moves.length; i++) {
+            byte d = entry.moves[i];
+            path[i + 1] = path[i] + Grid.DR[d] * grid.cols() + Grid.DC[d];
+        }
+        return path;
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public synchronized long bytes() { return bytes; }
+    public synchronized long hits() { return hits; }
+    public synchronized long misses() { return misses; }
+    public synchronized long evictions() { return evictions; }
+    public synchronized long invalidations() { return invalidations; }
+
+    @Override
+    public synchronized String toString() {
+        return entries.size() + " paths, " + bytes + " bytes, " + hits + " hits, " + misses + " misses, "
+                + evictions + " evicted, " + invalidations + " invalidated";
+    }
+}
@@ -0,0 +1,23 @@
+import java.io.PrintStream;
+
+// Hooks a search calls while it runs. Both methods do nothing by default, and an engine
+// only calls them when a listener has been set, so without one the cost is a null check.
+interface SearchListener {
+    // cell is about to be expanded, g being the cost of the path that reached it
+    default void expanded(int cell, int g) {
+    }
+
+    // The search has returned; stats is complete
+    default void finished(SearchStats stats) {
+    }
+
+    // Prints every finished search to out as one JSON line
+    static SearchListener jsonLines(PrintStream out) {
+        return new SearchListener() {
+            @Override
+            public void finished(SearchStats stats) {
+                out.println(stats.toJson());
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package bench;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Corner-to-corner queries: Search.AStarSearch as the demo calls it (State in, States out,
+// Grid rebuilt per call, h(N) built on the first), and the engines underneath it on a prebuilt Grid
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AStarBenchmark {
+
+    @Param({"65", "257", "1025"})
+    int size;
+
+    // blocked percentage of a seeded random map, or a seeded perfect maze
+    @Param({"0", "20", "35", "maze"})
+    String obstacles;
+
+    private int goal;
+    private Object search;
+    private Object start;
+    private Object gridSearch;
+    private Object jumpPointSearch;
+    private Object hierarchical;
+    private Method aStarSearch;
+    private Method aStar;
+    private Method jps;
+    private Method hpa;
+
+    @Setup
+    public void setUp() {
+        Object grid = GridMaps.generate(size, obstacles);
+        Class<?> gridType = Legacy.type("Grid");
+        goal = size * size - 1;
+
+        search = Legacy.construct("Search", new Class<?>[0]);
+        start = Legacy.construct("State", new Class<?>[]{int.class, int.class, int[][].class},
+                0, 0, GridMaps.toArray(grid, size));
+        aStarSearch = Legacy.method("Search", "AStarSearch", Legacy.type("State"));
+
+        gridSearch = Legacy.construct("GridSearch", new Class<?>[]{gridType}, grid);
+        aStar = Legacy.method("GridSearch", "aStar", int.class, int.class);
+        jumpPointSearch = Legacy.construct("JumpPointSearch", new Class<?>[]{gridType}, grid);
+        jps = Legacy.method("JumpPointSearch", "search", int.class, int.class);
+        hierarchical = Legacy.construct("HierarchicalPathfinder", new Class<?>[]{gridType, int.class}, grid, 16);
+        hpa = Legacy.method("HierarchicalPathfinder", "search", int.class, int.class);
+    }
+
+    @Benchmark
+    public Object searchAStarSearch() {
+        return Legacy.call(aStarSearch, search, start);
+    }
+
+    @Benchmark
+    public Object gridSearchAStar() {
+        return Legacy.call(aStar, gridSearch, 0, goal);
+    }
+
+    @Benchmark
+    public Object jumpPointSearch() {
+        return Legacy.call(jps, jumpPointSearch, 0, goal);
+    }
+
+    @Benchmark
+    public Object hierarchicalPathfinder() {
+        return Legacy.call(hpa, hierarchical, 0, goal);
+    }
+}
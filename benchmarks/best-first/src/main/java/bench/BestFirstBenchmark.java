@@ -0,0 +1,64 @@
+package bench;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Corner-to-corner greedy best-first: Search.bestFirstSearch as the demo calls it, and
+// GridSearch.bestFirst on a prebuilt Grid
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BestFirstBenchmark {
+
+    @Param({"65", "257", "1025"})
+    int size;
+
+    // blocked percentage of a seeded random map, or a seeded perfect maze
+    @Param({"0", "20", "35", "maze"})
+    String obstacles;
+
+    private int goal;
+    private Object search;
+    private Object start;
+    private Object gridSearch;
+    private Method bestFirstSearch;
+    private Method bestFirst;
+
+    @Setup
+    public void setUp() {
+        Object grid = GridMaps.generate(size, obstacles);
+        goal = size * size - 1;
+
+        search = Legacy.construct("Search", new Class<?>[0]);
+        start = Legacy.construct("State", new Class<?>[]{int.class, int.class, int[][].class},
+                0, 0, GridMaps.toArray(grid, size));
+        bestFirstSearch = Legacy.method("Search", "bestFirstSearch", Legacy.type("State"));
+
+        gridSearch = Legacy.construct("GridSearch", new Class<?>[]{Legacy.type("Grid")}, grid);
+        bestFirst = Legacy.method("GridSearch", "bestFirst", int.class, int.class);
+    }
+
+    @Benchmark
+    public Object searchBestFirstSearch() {
+        return Legacy.call(bestFirstSearch, search, start);
+    }
+
+    @Benchmark
+    public Object gridSearchBestFirst() {
+        return Legacy.call(bestFirst, gridSearch, 0, goal);
+    }
+}
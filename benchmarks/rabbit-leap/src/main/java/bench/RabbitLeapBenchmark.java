@@ -0,0 +1,82 @@
+package bench;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Every PackedRabbitLeap engine, by rabbits per side
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RabbitLeapBenchmark {
+
+    @Param({"3", "8", "12", "15"})
+    int rabbits;
+
+    private Object puzzle;
+    private Object idaStar;
+    private Object puzzleSearch;
+    private Method bfs;
+    private Method dfs;
+    private Method bidirectionalBfs;
+    private Method symmetricBfs;
+    private Method idaSearch;
+    private Method aStar;
+
+    @Setup
+    public void setUp() {
+        puzzle = Legacy.construct("PackedRabbitLeap", new Class<?>[]{int.class}, rabbits);
+        Class<?> packedPuzzle = Legacy.type("PackedPuzzle");
+        idaStar = Legacy.construct("IdaStar", new Class<?>[]{packedPuzzle}, puzzle);
+        puzzleSearch = Legacy.construct("PuzzleSearch", new Class<?>[]{packedPuzzle}, puzzle);
+        bfs = Legacy.method("PackedRabbitLeap", "bfs");
+        dfs = Legacy.method("PackedRabbitLeap", "dfs");
+        bidirectionalBfs = Legacy.method("PackedRabbitLeap", "bidirectionalBfs");
+        symmetricBfs = Legacy.method("PackedRabbitLeap", "symmetricBfs");
+        idaSearch = Legacy.method("IdaStar", "search");
+        aStar = Legacy.method("PuzzleSearch", "aStar");
+    }
+
+    @Benchmark
+    public Object bfs() {
+        return Legacy.call(bfs, puzzle);
+    }
+
+    @Benchmark
+    public Object dfs() {
+        return Legacy.call(dfs, puzzle);
+    }
+
+    @Benchmark
+    public Object bidirectionalBfs() {
+        return Legacy.call(bidirectionalBfs, puzzle);
+    }
+
+    @Benchmark
+    public Object symmetricBfs() {
+        return Legacy.call(symmetricBfs, puzzle);
+    }
+
+    @Benchmark
+    public Object idaStar() {
+        return Legacy.call(idaSearch, idaStar);
+    }
+
+    @Benchmark
+    public Object puzzleSearchAStar() {
+        return Legacy.call(aStar, puzzleSearch);
+    }
+}
@@ -0,0 +1,58 @@
+package bench;
+
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The original RiverBridge.BFS/DFS on the four-person instance; both cut off at 60 minutes
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LegacyRiverBridgeBenchmark {
+
+    private Object start;
+    private Method bfs;
+    private Method dfs;
+    private PrintStream out;
+
+    @Setup
+    public void setUp() {
+        start = Legacy.construct("State", new Class<?>[]{List.class, String.class, List.class, int.class},
+                Arrays.asList("E", "E", "E", "E"), "E", Arrays.asList(5, 10, 20, 25), 0);
+        Class<?> state = Legacy.type("State");
+        bfs = Legacy.method("RiverBridge", "BFS", state);
+        dfs = Legacy.method("RiverBridge", "DFS", state);
+        out = Legacy.silence();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    @Benchmark
+    public Object bfs() {
+        return Legacy.call(bfs, null, start);
+    }
+
+    @Benchmark
+    public Object dfs() {
+        return Legacy.call(dfs, null, start);
+    }
+}
@@ -0,0 +1,68 @@
+package bench;
+
+import java.lang.reflect.Method;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// PackedRiverBridge's uniform-cost solver and bounded DFS, by group size. Crossing times
+// are drawn from a fixed seed, as in the demo in PackedRiverBridge.main.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RiverBridgeBenchmark {
+
+    @Param({"4", "12", "16", "20"})
+    int people;
+
+    private Object bridge;
+    private long escort;
+    private Method solve;
+    private Method dfs;
+
+    static int[] times(int people) {
+        Random random = new Random(42);
+        int[] times = new int[people];
+        for (int i = 0; i < people; i++) times[i] = 1 + random.nextInt(100);
+        return times;
+    }
+
+    @Setup
+    public void setUp() {
+        int[] times = times(people);
+        bridge = Legacy.construct("PackedRiverBridge", new Class<?>[]{int[].class}, (Object) times);
+        solve = Legacy.method("PackedRiverBridge", "solve");
+        dfs = Legacy.method("PackedRiverBridge", "dfs", long.class);
+        // the time it takes the fastest person to escort everyone else, always reachable
+        int fastest = Integer.MAX_VALUE;
+        long sum = 0;
+        for (int time : times) {
+            fastest = Math.min(fastest, time);
+            sum += time;
+        }
+        escort = sum - fastest + (long) (people - 2) * fastest;
+    }
+
+    @Benchmark
+    public Object solve() {
+        return Legacy.call(solve, bridge);
+    }
+
+    @Benchmark
+    public Object dfsWithinEscortTime() {
+        return Legacy.call(dfs, bridge, escort);
+    }
+}
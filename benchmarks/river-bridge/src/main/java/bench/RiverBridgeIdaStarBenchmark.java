@@ -0,0 +1,53 @@
+package bench;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The linear-memory searches, which only scale to small groups
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RiverBridgeIdaStarBenchmark {
+
+    @Param({"4", "6", "8"})
+    int people;
+
+    private Object bridge;
+    private Object idaStar;
+    private Method idaSearch;
+    private Method iterativeDeepening;
+
+    @Setup
+    public void setUp() {
+        bridge = Legacy.construct("PackedRiverBridge", new Class<?>[]{int[].class},
+                (Object) RiverBridgeBenchmark.times(people));
+        Object puzzle = Legacy.call(Legacy.method("PackedRiverBridge", "asPuzzle"), bridge);
+        idaStar = Legacy.construct("IdaStar", new Class<?>[]{Legacy.type("PackedPuzzle")}, puzzle);
+        idaSearch = Legacy.method("IdaStar", "search");
+        iterativeDeepening = Legacy.method("PackedRiverBridge", "iterativeDeepening");
+    }
+
+    @Benchmark
+    public Object idaStar() {
+        return Legacy.call(idaSearch, idaStar);
+    }
+
+    @Benchmark
+    public Object iterativeDeepening() {
+        return Legacy.call(iterativeDeepening, bridge);
+    }
+}
@@ -0,0 +1,38 @@
+package bench;
+
+import java.lang.reflect.Method;
+
+// Seeded benchmark maps built with GridGenerator. obstacles is a blocked percentage for a
+// random map, or "maze" for a perfect maze. The corners are always free so the original
+// corner-to-corner searches have a start and a goal; with an odd size the maze corners
+// touch a room diagonally and are connected.
+final class GridMaps {
+    static final long SEED = 42;
+
+    private GridMaps() {
+    }
+
+    static Object generate(int size, String obstacles) {
+        Object grid = "maze".equals(obstacles)
+                ? Legacy.call(Legacy.method("GridGenerator", "maze", int.class, int.class, long.class),
+                        null, size, size, SEED)
+                : Legacy.call(Legacy.method("GridGenerator", "random", int.class, int.class, int.class, long.class),
+                        null, size, size, Integer.parseInt(obstacles), SEED);
+        Method setBlocked = Legacy.method("Grid", "setBlocked", int.class, boolean.class);
+        Legacy.call(setBlocked, grid, 0, false);
+        Legacy.call(setBlocked, grid, size * size - 1, false);
+        return grid;
+    }
+
+    // The same map as the int[][] (1 = obstacle) the original State classes take
+    static int[][] toArray(Object grid, int size) {
+        Method isBlocked = Legacy.method("Grid", "isBlocked", int.class);
+        int[][] cells = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                cells[row][col] = (Boolean) Legacy.call(isBlocked, grid, row * size + col) ? 1 : 0;
+            }
+        }
+        return cells;
+    }
+}